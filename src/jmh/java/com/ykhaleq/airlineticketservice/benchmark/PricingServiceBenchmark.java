@@ -0,0 +1,50 @@
+package com.ykhaleq.airlineticketservice.benchmark;
+
+import com.ykhaleq.airlineticketservice.service.PricingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single price lookup, cycling through every level and a spread of reserved counts
+ * so each pricing tier is exercised.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingServiceBenchmark {
+
+    private static final String[] LEVEL_NAMES = {"First Class", "Business", "Premium Economy", "Economy"};
+
+    @State(Scope.Benchmark)
+    public static class Pricing {
+        PricingService pricingService;
+
+        @Setup
+        public void setUp() {
+            pricingService = new PricingService();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public double calculatePrice(Pricing pricing, Cursor cursor) {
+        int i = cursor.next++;
+        return pricing.pricingService.calculatePrice(LEVEL_NAMES[i & 3], (i >>> 2) % 100);
+    }
+}
@@ -0,0 +1,125 @@
+package com.ykhaleq.airlineticketservice.benchmark;
+
+import com.ykhaleq.airlineticketservice.model.Seat;
+import com.ykhaleq.airlineticketservice.model.SeatHold;
+import com.ykhaleq.airlineticketservice.model.SeatingLevel;
+import com.ykhaleq.airlineticketservice.repository.AirplaneLayoutRepository;
+import com.ykhaleq.airlineticketservice.service.PricingService;
+import com.ykhaleq.airlineticketservice.service.SeatService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of the seat service hot paths across aircraft sizes.
+ * Thread count is set from the command line, e.g. {@code -Djmh.args="-t 8"}.
+ *
+ * Operations that consume seats free every seat of the aircraft once it sells out, so every
+ * invocation measures a successful claim rather than the sold-out error path. The repository, and the
+ * layout files it parses, are built once per trial so restocking never shows up in the measurements.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SeatServiceBenchmark {
+
+    private static final String FLIGHT_ID = "BENCH";
+    private static final String CUSTOMER_EMAIL = "bench@example.com";
+
+    // Multiplier on the row count of every level: 1 = the standard 400-seat layout
+    @Param({"1", "4", "10"})
+    public int aircraftScale;
+
+    private PricingService pricingService;
+    private AirplaneLayoutRepository repository;
+    private volatile SeatService seatService;
+    private volatile int restocks; // Sell-outs restocked this iteration; written under the instance lock
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        pricingService = new PricingService();
+        repository = new AirplaneLayoutRepository(pricingService);
+    }
+
+    // A fresh flight and service per iteration, so holds and reservations don't pile up across iterations
+    @Setup(Level.Iteration)
+    public void setUp() {
+        repository.addFlight(FLIGHT_ID, List.of(
+                new SeatingLevel("First Class", 10 * aircraftScale, 4),
+                new SeatingLevel("Business", 15 * aircraftScale, 6),
+                new SeatingLevel("Premium Economy", 20 * aircraftScale, 6),
+                new SeatingLevel("Economy", 25 * aircraftScale, 6)));
+        seatService = new SeatService(repository, pricingService, 120);
+        restocks = 0;
+    }
+
+    // Free every seat of the sold-out aircraft and reset its prices, unless another thread already did so
+    // after the same sell-out. Holds left behind are never touched again by these benchmarks.
+    private synchronized void restock(int soldOutRestocks) {
+        if (restocks != soldOutRestocks) {
+            return;
+        }
+        for (SeatingLevel level : repository.getSeatingLevels(FLIGHT_ID)) {
+            for (Seat seat : level.getSeats()) {
+                if (seat.isReserved()) {
+                    seat.cancel();
+                } else if (seat.isHeld()) {
+                    seat.release();
+                }
+            }
+            repository.recordCancellations(FLIGHT_ID, level, level.getReservedCount());
+        }
+        restocks++;
+    }
+
+    @Benchmark
+    public Object numSeatsAvailable() {
+        return seatService.numSeatsAvailable(FLIGHT_ID, Optional.empty());
+    }
+
+    @Benchmark
+    public Object findAndHoldSeats() {
+        while (true) {
+            int seen = restocks;
+            try {
+                return seatService.findAndHoldSeats(FLIGHT_ID, 2, CUSTOMER_EMAIL);
+            } catch (IllegalArgumentException soldOut) {
+                restock(seen);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object findAndReserveHeldSeats() {
+        SeatHold seatHold = (SeatHold) findAndHoldSeats();
+        return seatService.reserveHeldSeats(FLIGHT_ID, seatHold.getHoldId(), CUSTOMER_EMAIL);
+    }
+
+    @Benchmark
+    public Object reserveBestAvailableSeats() {
+        while (true) {
+            int seen = restocks;
+            try {
+                return seatService.reserveBestAvailableSeats(FLIGHT_ID, 2, CUSTOMER_EMAIL, 0, 2000, Optional.empty());
+            } catch (IllegalArgumentException soldOut) {
+                restock(seen);
+            }
+        }
+    }
+}
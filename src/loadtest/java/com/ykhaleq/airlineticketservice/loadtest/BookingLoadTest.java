@@ -0,0 +1,256 @@
+package com.ykhaleq.airlineticketservice.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ykhaleq.airlineticketservice.model.SeatingLevel;
+import com.ykhaleq.airlineticketservice.repository.AirplaneLayoutRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives mixed availability, hold, reserve, release and direct-reservation traffic over HTTP against an embedded
+ * server, then checks that no seat was sold twice and that every level's counters match its seat state and the
+ * bookings the clients saw. Run with the {@code load-test} profile; settings are system properties:
+ * <ul>
+ *     <li>{@code loadtest.threads} concurrent clients (default 32)</li>
+ *     <li>{@code loadtest.operations} requests across all clients (default 20000)</li>
+ *     <li>{@code loadtest.flights} flights the traffic is spread over (default 16)</li>
+ *     <li>{@code loadtest.max-p99-millis} fail if any operation's p99 exceeds this (default 0, no limit)</li>
+ * </ul>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "seat.hold.expiration.seconds=3600") // Holds left open must outlive the run
+class BookingLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingLoadTest.class);
+
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 32);
+    private static final int OPERATIONS = Integer.getInteger("loadtest.operations", 20_000);
+    private static final int FLIGHTS = Integer.getInteger("loadtest.flights", 16);
+    private static final long MAX_P99_MILLIS = Long.getLong("loadtest.max-p99-millis", 0);
+
+    enum Operation { AVAILABILITY, HOLD, RESERVE, RELEASE, RESERVE_DIRECT }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AirplaneLayoutRepository layoutRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Client-side view of the outcome, checked against the server's seat state afterwards
+    private final ConcurrentLinkedQueue<String> confirmationCodes = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<String, AtomicInteger> openHeldSeats = new ConcurrentHashMap<>(); // Flight -> seats
+    private final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+    private final Map<String, AtomicInteger> rejections = new ConcurrentHashMap<>();
+
+    @DynamicPropertySource
+    static void flights(DynamicPropertyRegistry registry) {
+        registry.add("seat.flights", () -> IntStream.rangeClosed(1, FLIGHTS)
+                .mapToObj(BookingLoadTest::flightId)
+                .collect(Collectors.joining(",")));
+    }
+
+    @Test
+    void mixedBookingTrafficKeepsSeatStateConsistent() throws Exception {
+        List<Map<Operation, LatencyRecorder>> perWorker = new ArrayList<>();
+        AtomicInteger remaining = new AtomicInteger(OPERATIONS);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            Map<Operation, LatencyRecorder> latencies = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LatencyRecorder());
+            }
+            perWorker.add(latencies);
+            int worker = t;
+            workers.submit(() -> {
+                start.await();
+                while (remaining.get() > 0) {
+                    runSession(worker, latencies, remaining);
+                }
+                return null;
+            });
+        }
+
+        long started = System.nanoTime();
+        start.countDown(); // Every client starts at once, like an on-sale opening
+        workers.shutdown();
+        assertTrue(workers.awaitTermination(30, TimeUnit.MINUTES), "Load run did not finish");
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Map<Operation, LatencyRecorder> latencies = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            LatencyRecorder merged = new LatencyRecorder();
+            perWorker.forEach(recorders -> merged.addAll(recorders.get(operation)));
+            latencies.put(operation, merged);
+        }
+        report(latencies, seconds);
+
+        assertTrue(failures.isEmpty(), () -> failures.size() + " unexpected responses, e.g. " + failures.peek());
+        assertNoSeatSoldTwiceAndCountersMatch();
+        if (MAX_P99_MILLIS > 0) {
+            latencies.forEach((operation, recorder) -> assertTrue(recorder.percentileMillis(99) <= MAX_P99_MILLIS,
+                    () -> operation + " p99 above " + MAX_P99_MILLIS + "ms: " + recorder.summary()));
+        }
+    }
+
+    // One customer visit: browse availability, then usually hold and reserve, release or abandon, or book directly
+    private void runSession(int worker, Map<Operation, LatencyRecorder> latencies, AtomicInteger remaining)
+            throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String flightId = flightId(1 + random.nextInt(FLIGHTS));
+        String email = "customer" + worker + "-" + random.nextInt(1_000_000) + "@loadtest.example";
+
+        if (remaining.getAndDecrement() <= 0) {
+            return;
+        }
+        send(latencies, Operation.AVAILABILITY, get("/flights/" + flightId + "/seats/available"), 200);
+
+        int choice = random.nextInt(100);
+        if (choice < 20) {
+            if (remaining.getAndDecrement() <= 0) {
+                return;
+            }
+            String body = "{\"numSeats\": " + (1 + random.nextInt(4)) + ", \"maxPrice\": 2000, \"customerEmail\": \""
+                    + email + "\"}";
+            HttpResponse<String> response = send(latencies, Operation.RESERVE_DIRECT,
+                    post("/flights/" + flightId + "/seats/reserve-direct", body), 200, 400);
+            if (response.statusCode() == 200) {
+                confirmationCodes.add(response.body());
+            }
+            return;
+        }
+        if (choice < 35 || remaining.getAndDecrement() <= 0) {
+            return; // Only browsed
+        }
+
+        int numSeats = 1 + random.nextInt(4);
+        HttpResponse<String> held = send(latencies, Operation.HOLD, post("/flights/" + flightId + "/seats/hold",
+                "{\"numSeats\": " + numSeats + ", \"customerEmail\": \"" + email + "\"}"), 200, 400, 409, 429);
+        if (held.statusCode() != 200) {
+            return;
+        }
+        long holdId = objectMapper.readTree(held.body()).get("holdId").asLong();
+        String holdBody = "{\"holdId\": " + holdId + ", \"customerEmail\": \"" + email + "\"}";
+
+        int outcome = random.nextInt(100);
+        if (outcome < 10 || remaining.getAndDecrement() <= 0) {
+            openHeldSeats.computeIfAbsent(flightId, id -> new AtomicInteger()).addAndGet(numSeats); // Abandoned
+        } else if (outcome < 30) {
+            send(latencies, Operation.RELEASE, post("/flights/" + flightId + "/seats/release", holdBody), 204);
+        } else {
+            HttpResponse<String> reserved = send(latencies, Operation.RESERVE,
+                    post("/flights/" + flightId + "/seats/reserve", holdBody), 200);
+            if (reserved.statusCode() == 200) {
+                confirmationCodes.add(reserved.body());
+            }
+        }
+    }
+
+    private void assertNoSeatSoldTwiceAndCountersMatch() throws IOException, InterruptedException {
+        Set<String> soldSeats = new HashSet<>();
+        Map<String, Integer> reservedByLevel = new HashMap<>(); // "flight/level" -> seats
+        for (String code : confirmationCodes) {
+            HttpResponse<String> response = client.send(get("/reservations/" + code), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode(), () -> "Lookup of " + code + ": " + response.body());
+            JsonNode reservation = objectMapper.readTree(response.body());
+            String flightId = reservation.get("flightId").asText();
+            for (JsonNode seat : reservation.get("seats")) {
+                String level = flightId + "/" + seat.get("level").asText();
+                assertTrue(soldSeats.add(level + "/" + seat.get("seatNumber").asText()),
+                        () -> "Seat sold twice: " + level + " " + seat.get("seatNumber").asText());
+                reservedByLevel.merge(level, 1, Integer::sum);
+            }
+        }
+
+        for (int f = 1; f <= FLIGHTS; f++) {
+            String flightId = flightId(f);
+            int held = 0;
+            for (SeatingLevel level : layoutRepository.getSeatingLevels(flightId)) {
+                String key = flightId + "/" + level.getLevelName();
+                assertTrue(level.hasConsistentCounters(), () -> "Counters drifted from seat state: " + key);
+                assertEquals(reservedByLevel.getOrDefault(key, 0), level.getReservedCount(), key);
+                held += level.getHeldCount();
+            }
+            AtomicInteger open = openHeldSeats.get(flightId);
+            assertEquals(open == null ? 0 : open.get(), held, flightId + " held seats");
+        }
+        log.info("Verified {} reservations covering {} seats", confirmationCodes.size(), soldSeats.size());
+    }
+
+    private HttpResponse<String> send(Map<Operation, LatencyRecorder> latencies, Operation operation,
+                                      HttpRequest request, int... expectedStatuses) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        latencies.get(operation).record(System.nanoTime() - started);
+
+        int status = response.statusCode();
+        if (IntStream.of(expectedStatuses).noneMatch(expected -> expected == status)) {
+            failures.add(operation + " " + request.uri().getPath() + " -> " + status + " " + response.body());
+        } else if (status != expectedStatuses[0]) {
+            rejections.computeIfAbsent(operation + " " + status, key -> new AtomicInteger()).incrementAndGet();
+        }
+        return response;
+    }
+
+    private void report(Map<Operation, LatencyRecorder> latencies, double seconds) {
+        int total = latencies.values().stream().mapToInt(LatencyRecorder::count).sum();
+        log.info("{} requests from {} clients in {}s ({} req/s)", total, THREADS,
+                String.format("%.1f", seconds), String.format("%.0f", total / seconds));
+        latencies.forEach((operation, recorder) -> log.info("{} {}", operation, recorder.summary()));
+        log.info("Expected rejections (sold out, contended or over a customer's limit): {}", rejections);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String flightId(int number) {
+        return "LT" + number;
+    }
+}
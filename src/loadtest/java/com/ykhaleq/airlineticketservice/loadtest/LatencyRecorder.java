@@ -0,0 +1,47 @@
+package com.ykhaleq.airlineticketservice.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latency samples of one operation type, recorded by a single worker thread and merged after the run.
+ */
+final class LatencyRecorder {
+    private long[] nanos = new long[1024];
+    private int count;
+
+    void record(long elapsedNanos) {
+        if (count == nanos.length) {
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = elapsedNanos;
+    }
+
+    void addAll(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.nanos[i]);
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * Latency at a percentile in (0, 100], in milliseconds.
+     */
+    double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(rank, 0)] / 1_000_000.0;
+    }
+
+    String summary() {
+        return String.format("n=%d p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms", count,
+                percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(99.9),
+                percentileMillis(100));
+    }
+}
@@ -2,8 +2,12 @@ package com.ykhaleq.airlineticketservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "com.ykhaleq.airlineticketservice")
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class AirlineticketserviceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,76 @@
+package com.ykhaleq.airlineticketservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fare tiers per seating level, bound from {@code pricing.levels[n].*}.
+ * A level charges {@code prices[i]} while its reserved count is at most {@code thresholds[i]},
+ * and the last price once the count exceeds every threshold, so each level needs one more price than thresholds.
+ * Configuring any level replaces the whole default list below.
+ */
+@ConfigurationProperties(prefix = "pricing")
+public class PricingProperties {
+
+    private List<LevelPricing> levels = defaultLevels();
+
+    private static List<LevelPricing> defaultLevels() {
+        List<LevelPricing> levels = new ArrayList<>();
+        levels.add(new LevelPricing("First Class", List.of(10, 30), List.of(500.0, 1000.0, 1600.0)));
+        levels.add(new LevelPricing("Business", List.of(45), List.of(350.0, 450.0)));
+        levels.add(new LevelPricing("Premium Economy", List.of(40, 60), List.of(250.0, 150.0, 300.0)));
+        levels.add(new LevelPricing("Economy", List.of(), List.of(200.0))); // Flat pricing
+        return levels;
+    }
+
+    // Getters and setters
+    public List<LevelPricing> getLevels() {
+        return levels;
+    }
+
+    public void setLevels(List<LevelPricing> levels) {
+        this.levels = levels;
+    }
+
+    public static class LevelPricing {
+        private String name;                              // Seating level name
+        private List<Integer> thresholds = new ArrayList<>(); // Inclusive upper reserved counts, ascending
+        private List<Double> prices = new ArrayList<>();      // One price per tier
+
+        public LevelPricing() {
+        }
+
+        public LevelPricing(String name, List<Integer> thresholds, List<Double> prices) {
+            this.name = name;
+            this.thresholds = new ArrayList<>(thresholds);
+            this.prices = new ArrayList<>(prices);
+        }
+
+        // Getters and setters
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<Integer> getThresholds() {
+            return thresholds;
+        }
+
+        public void setThresholds(List<Integer> thresholds) {
+            this.thresholds = thresholds;
+        }
+
+        public List<Double> getPrices() {
+            return prices;
+        }
+
+        public void setPrices(List<Double> prices) {
+            this.prices = prices;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ykhaleq.airlineticketservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ykhaleq.airlineticketservice.controller.SeatRouter;
+import com.ykhaleq.airlineticketservice.service.IdempotencyCache;
+import com.ykhaleq.airlineticketservice.service.SeatService;
+import com.ykhaleq.airlineticketservice.service.WaitingRoom;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Starts the reactive seat API ({@link SeatRouter}) on its own Reactor Netty server, next to the servlet
+ * container that serves {@link com.ykhaleq.airlineticketservice.controller.SeatController}.
+ * Enabled with {@code seat.reactive.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "seat.reactive.enabled", havingValue = "true")
+public class ReactiveServerConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveServerConfiguration.class);
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources reactiveSeatLoopResources(@Value("${seat.reactive.event-loop-threads:4}") int eventLoopThreads) {
+        return LoopResources.create("seat-reactive", eventLoopThreads, true);
+    }
+
+    @Bean(destroyMethod = "disposeNow")
+    public DisposableServer reactiveSeatServer(SeatService seatService,
+                                               WaitingRoom waitingRoom,
+                                               IdempotencyCache idempotencyCache,
+                                               Validator validator,
+                                               ObjectMapper objectMapper,
+                                               LoopResources reactiveSeatLoopResources,
+                                               @Value("${seat.reactive.port:8081}") int port) {
+        // Share the application's ObjectMapper so both APIs serialize seats and holds identically
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        ReactorHttpHandlerAdapter adapter = new ReactorHttpHandlerAdapter(
+                RouterFunctions.toHttpHandler(new SeatRouter(seatService, validator, waitingRoom, idempotencyCache).routes(), strategies));
+
+        DisposableServer server = HttpServer.create()
+                .port(port)
+                .runOn(reactiveSeatLoopResources)
+                .handle(adapter)
+                .bindNow();
+        log.info("Reactive seat API listening on port {}", server.port());
+        return server;
+    }
+}
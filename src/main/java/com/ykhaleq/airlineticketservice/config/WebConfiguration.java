@@ -0,0 +1,28 @@
+package com.ykhaleq.airlineticketservice.config;
+
+import com.ykhaleq.airlineticketservice.controller.SeatBinaryMessageConverter;
+import com.ykhaleq.airlineticketservice.repository.AirplaneLayoutRepository;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Registers the binary seat payload converter after the default ones, so JSON stays the response format
+ * unless a client explicitly accepts {@code application/x-seat-binary}.
+ */
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+    private final AirplaneLayoutRepository layoutRepository;
+
+    public WebConfiguration(AirplaneLayoutRepository layoutRepository) {
+        this.layoutRepository = layoutRepository;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new SeatBinaryMessageConverter(layoutRepository));
+    }
+}
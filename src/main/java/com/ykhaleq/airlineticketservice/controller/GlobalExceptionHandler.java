@@ -1,8 +1,14 @@
 package com.ykhaleq.airlineticketservice.controller;
 
+import com.ykhaleq.airlineticketservice.exception.FlightNotFoundException;
 import com.ykhaleq.airlineticketservice.exception.InvalidRequestException;
+import com.ykhaleq.airlineticketservice.exception.ReservationNotFoundException;
 import com.ykhaleq.airlineticketservice.exception.SeatHoldNotFoundException;
+import com.ykhaleq.airlineticketservice.exception.SeatsSoldOutException;
+import com.ykhaleq.airlineticketservice.exception.TooManyRequestsException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -30,18 +36,46 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
+    @ExceptionHandler(FlightNotFoundException.class)
+    public ResponseEntity<Object> handleFlightNotFoundException(FlightNotFoundException ex) {
+        return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<Object> handleReservationNotFoundException(ReservationNotFoundException ex) {
+        return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    @ExceptionHandler(SeatsSoldOutException.class)
+    public ResponseEntity<Object> handleSeatsSoldOutException(SeatsSoldOutException ex) {
+        return buildErrorResponse(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
     @ExceptionHandler(InvalidRequestException.class)
     public ResponseEntity<Object> handleInvalidRequestException(InvalidRequestException ex) {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Object> handleTooManyRequestsException(TooManyRequestsException ex) {
+        ResponseEntity<Object> response = buildErrorResponse(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
+        if (ex.getRetryAfterSeconds() == 0) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
+    // Errors are always JSON, even for clients that only accept application/x-seat-binary
     private ResponseEntity<Object> buildErrorResponse(HttpStatus status, String message) {
         Map<String, Object> errorDetails = new HashMap<>();
         errorDetails.put("timestamp", LocalDateTime.now());
         errorDetails.put("status", status.value());
         errorDetails.put("error", status.getReasonPhrase());
         errorDetails.put("message", message);
-        return new ResponseEntity<>(errorDetails, status);
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(errorDetails);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -56,6 +90,6 @@ public class GlobalExceptionHandler {
                 ex.getBindingResult().getFieldError().getDefaultMessage() : "Validation error";
         errors.put("message", message);
 
-        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(errors);
     }
 }
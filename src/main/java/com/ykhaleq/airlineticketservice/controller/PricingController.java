@@ -0,0 +1,46 @@
+package com.ykhaleq.airlineticketservice.controller;
+
+import com.ykhaleq.airlineticketservice.config.PricingProperties;
+import com.ykhaleq.airlineticketservice.service.PricingService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Fare administration. Replacing the pricing levels takes effect on the next price lookup, without a redeploy;
+ * the new rules use the same format as {@code pricing.levels[n].*} and last until the next restart.
+ * Enabled with {@code pricing.admin.enabled=true}.
+ */
+@RestController
+@ConditionalOnProperty(name = "pricing.admin.enabled", havingValue = "true")
+public class PricingController {
+
+    private final PricingService pricingService;
+
+    public PricingController(PricingService pricingService) {
+        this.pricingService = pricingService;
+    }
+
+    /**
+     * Get the pricing levels currently in effect.
+     */
+    @GetMapping("/admin/pricing")
+    public ResponseEntity<List<PricingProperties.LevelPricing>> getPricing() {
+        return ResponseEntity.ok(pricingService.getLevels());
+    }
+
+    /**
+     * Replace every pricing level at once. Invalid tiers, or a level left without pricing, are rejected with 400.
+     */
+    @PutMapping("/admin/pricing")
+    public ResponseEntity<List<PricingProperties.LevelPricing>> reloadPricing(
+            @RequestBody List<PricingProperties.LevelPricing> levels) {
+        pricingService.reload(levels);
+        return ResponseEntity.ok(pricingService.getLevels());
+    }
+}
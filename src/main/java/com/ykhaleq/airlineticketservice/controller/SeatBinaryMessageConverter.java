@@ -0,0 +1,160 @@
+package com.ykhaleq.airlineticketservice.controller;
+
+import com.ykhaleq.airlineticketservice.dto.ReleaseHoldRequest;
+import com.ykhaleq.airlineticketservice.dto.ReserveSeatsRequest;
+import com.ykhaleq.airlineticketservice.dto.SeatHoldRequest;
+import com.ykhaleq.airlineticketservice.model.AirplaneLayout;
+import com.ykhaleq.airlineticketservice.model.Seat;
+import com.ykhaleq.airlineticketservice.model.SeatHold;
+import com.ykhaleq.airlineticketservice.repository.AirplaneLayoutRepository;
+import com.ykhaleq.airlineticketservice.service.SeatService;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Compact binary encoding of hold, reserve and availability payloads for service-to-service calls,
+ * negotiated with {@code Content-Type} and {@code Accept: application/x-seat-binary}.
+ * All numbers are big-endian; strings are UTF-8 with a two-byte length.
+ * <pre>
+ * SeatHoldRequest        int numSeats, string customerEmail
+ * ReserveSeatsRequest,
+ * ReleaseHoldRequest     long holdId, string customerEmail
+ * SeatHold               long holdId, string flightId, string customerEmail, long expiration (epoch millis),
+ *                        int seat count, then one int per seat: level index &lt;&lt; 24 | seat index
+ * available seats        short level count, then per level: byte level index, string levelName, int available seats
+ * </pre>
+ * A level index is the level's position in the flight's cabin order, so it stays fixed for the life of the flight;
+ * the availability payload carries the name of each one.
+ * Confirmation codes are written as plain UTF-8 text by the string converter.
+ */
+public class SeatBinaryMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType SEAT_BINARY = new MediaType("application", "x-seat-binary");
+
+    static final int LEVEL_SHIFT = 24;
+    static final int SEAT_MASK = (1 << LEVEL_SHIFT) - 1;
+
+    private static final ResolvableType AVAILABLE_SEATS =
+            ResolvableType.forClassWithGenerics(List.class, SeatService.AvailableSeats.class);
+
+    private final AirplaneLayoutRepository layoutRepository;
+
+    public SeatBinaryMessageConverter(AirplaneLayoutRepository layoutRepository) {
+        super(SEAT_BINARY);
+        this.layoutRepository = layoutRepository;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == SeatHoldRequest.class || clazz == ReserveSeatsRequest.class
+                || clazz == ReleaseHoldRequest.class || clazz == SeatHold.class;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (type != null && AVAILABLE_SEATS.isAssignableFrom(ResolvableType.forType(type))) {
+            return canWrite(mediaType);
+        }
+        return super.canWrite(type, clazz, mediaType);
+    }
+
+    // Lists are only written when their element type matched in canWrite
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : super.getSupportedMediaTypes(clazz);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal(ResolvableType.forType(type).resolve(Object.class), inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        DataInputStream in = new DataInputStream(inputMessage.getBody());
+        try {
+            if (clazz == SeatHoldRequest.class) {
+                SeatHoldRequest request = new SeatHoldRequest();
+                request.setNumSeats(in.readInt());
+                request.setCustomerEmail(readString(in));
+                return request;
+            } else if (clazz == ReserveSeatsRequest.class) {
+                ReserveSeatsRequest request = new ReserveSeatsRequest();
+                request.setHoldId(in.readLong());
+                request.setCustomerEmail(readString(in));
+                return request;
+            } else if (clazz == ReleaseHoldRequest.class) {
+                ReleaseHoldRequest request = new ReleaseHoldRequest();
+                request.setHoldId(in.readLong());
+                request.setCustomerEmail(readString(in));
+                return request;
+            }
+        } catch (EOFException e) {
+            throw new HttpMessageNotReadableException("Truncated " + clazz.getSimpleName() + " payload", e, inputMessage);
+        }
+        throw new HttpMessageNotReadableException("Cannot decode " + clazz.getSimpleName(), inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputMessage.getBody());
+        if (value instanceof SeatHold hold) {
+            writeSeatHold(out, hold);
+        } else if (value instanceof List<?> levels) {
+            out.writeShort(levels.size());
+            for (Object level : levels) {
+                SeatService.AvailableSeats available = (SeatService.AvailableSeats) level;
+                out.writeByte(available.getLevelIndex());
+                writeString(out, available.getLevelName());
+                out.writeInt((int) available.getAvailableSeats());
+            }
+        }
+        out.flush();
+    }
+
+    private void writeSeatHold(DataOutputStream out, SeatHold hold) throws IOException {
+        out.writeLong(hold.getHoldId());
+        writeString(out, hold.getFlightId());
+        writeString(out, hold.getCustomerEmail());
+        out.writeLong(hold.getExpirationTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+
+        List<Seat> seats = hold.getHeldSeats();
+        out.writeInt(seats.size());
+        // Held seats come grouped by level, so the index is only looked up when the level changes
+        AirplaneLayout layout = seats.isEmpty() ? null : layoutRepository.getLayout(hold.getFlightId());
+        String levelName = null;
+        int levelIndex = 0;
+        for (Seat seat : seats) {
+            if (!seat.getLevel().equals(levelName)) {
+                levelName = seat.getLevel();
+                levelIndex = layout.getLevelIndex(levelName);
+            }
+            out.writeInt(levelIndex << LEVEL_SHIFT | seat.getIndex());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
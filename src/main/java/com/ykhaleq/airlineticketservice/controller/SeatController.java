@@ -1,73 +1,248 @@
 package com.ykhaleq.airlineticketservice.controller;
 
+import com.ykhaleq.airlineticketservice.dto.BatchRequest;
+import com.ykhaleq.airlineticketservice.dto.BatchResult;
 import com.ykhaleq.airlineticketservice.dto.DirectReservationRequest;
+import com.ykhaleq.airlineticketservice.dto.JoinQueueRequest;
+import com.ykhaleq.airlineticketservice.dto.QueueTicket;
+import com.ykhaleq.airlineticketservice.dto.ReleaseHoldRequest;
 import com.ykhaleq.airlineticketservice.dto.ReserveSeatsRequest;
+import com.ykhaleq.airlineticketservice.model.AirplaneLayout;
+import com.ykhaleq.airlineticketservice.model.Reservation;
+import com.ykhaleq.airlineticketservice.service.AvailabilityBroadcaster;
+import com.ykhaleq.airlineticketservice.service.IdempotencyCache;
+import com.ykhaleq.airlineticketservice.service.SeatMapService;
 import com.ykhaleq.airlineticketservice.service.SeatService;
+import com.ykhaleq.airlineticketservice.service.WaitingRoom;
 import com.ykhaleq.airlineticketservice.model.SeatHold;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import com.ykhaleq.airlineticketservice.dto.SeatHoldRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Seat endpoints. Every operation is served both under {@code /seats} for the default flight
+ * and under {@code /flights/{flightId}/seats} for a specific flight.
+ * Hold and reserve requests may carry an {@code Idempotency-Key} header; a retry with the same key
+ * returns the original response without changing seat state again.
+ * Committed reservations can be looked up under {@code /reservations} by confirmation code or customer email,
+ * and cancelled there to return their seats to inventory.
+ * The seat map is served with an ETag, so a client polling it with {@code If-None-Match} gets
+ * {@code 304 Not Modified} until a seat changes state.
+ * Flights with a waiting room only accept holds carrying an admitted {@code Waiting-Room-Ticket}, obtained by
+ * joining the flight's queue under {@code /seats/queue}.
+ */
 @RestController
-@RequestMapping("/seats")
 @Validated
 public class SeatController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String WAITING_ROOM_TICKET = "Waiting-Room-Ticket";
+
     private final SeatService seatService;
+    private final AvailabilityBroadcaster availabilityBroadcaster;
+    private final IdempotencyCache idempotencyCache;
+    private final SeatMapService seatMapService;
+    private final WaitingRoom waitingRoom;
 
     @Autowired
-    public SeatController(SeatService seatService) {
+    public SeatController(SeatService seatService,
+                          AvailabilityBroadcaster availabilityBroadcaster,
+                          IdempotencyCache idempotencyCache,
+                          SeatMapService seatMapService,
+                          WaitingRoom waitingRoom) {
         this.seatService = seatService;
+        this.availabilityBroadcaster = availabilityBroadcaster;
+        this.idempotencyCache = idempotencyCache;
+        this.seatMapService = seatMapService;
+        this.waitingRoom = waitingRoom;
     }
 
     /**
      * Get available seats by level.
      */
-    @GetMapping("/available")
+    @GetMapping({"/seats/available", "/flights/{flightId}/seats/available"})
     public ResponseEntity<List<SeatService.AvailableSeats>> getAvailableSeats(
+            @PathVariable(required = false) String flightId,
             @RequestParam(required = false) String[] levelNames) {
 
         // Call the service method and pass levelNames if provided
-        List<SeatService.AvailableSeats> availableSeats = seatService.numSeatsAvailable(Optional.ofNullable(levelNames));
+        List<SeatService.AvailableSeats> availableSeats = seatService.numSeatsAvailable(
+                flightOrDefault(flightId), Optional.ofNullable(levelNames));
         return ResponseEntity.ok(availableSeats);
     }
 
+    /**
+     * Subscribe to availability as server-sent events: a full snapshot, then coalesced per-level and per-seat changes.
+     */
+    @GetMapping(value = {"/seats/available/subscribe", "/flights/{flightId}/seats/available/subscribe"},
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeAvailability(@PathVariable(required = false) String flightId) {
+        return availabilityBroadcaster.subscribe(flightOrDefault(flightId));
+    }
+
+    /**
+     * Get the seat map: every level's rows with the state of each seat.
+     */
+    @GetMapping({"/seats/map", "/flights/{flightId}/seats/map"})
+    public ResponseEntity<byte[]> getSeatMap(@PathVariable(required = false) String flightId,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                             String ifNoneMatch) {
+        SeatMapService.Snapshot snapshot = seatMapService.seatMap(flightOrDefault(flightId));
+        if (ifNoneMatch != null && matches(ifNoneMatch, snapshot.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        // The body is already serialized JSON, written out as is
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(snapshot.body());
+    }
+
     /**
      * Hold seats for a customer.
      */
-    @PostMapping("/hold")
-    public ResponseEntity<SeatHold> holdSeats(@Valid @RequestBody SeatHoldRequest request) {
-        SeatHold seatHold = seatService.findAndHoldSeats(request.getNumSeats(), request.getCustomerEmail());
+    @PostMapping({"/seats/hold", "/flights/{flightId}/seats/hold"})
+    public ResponseEntity<SeatHold> holdSeats(@PathVariable(required = false) String flightId,
+                                              @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                              @RequestHeader(value = WAITING_ROOM_TICKET, required = false) String ticket,
+                                              @Valid @RequestBody SeatHoldRequest request) {
+        String flight = flightOrDefault(flightId);
+        SeatHold seatHold = idempotencyCache.execute(idempotencyScope("hold", flight, request.getCustomerEmail()), idempotencyKey,
+                () -> waitingRoom.hold(flight, ticket, request.getCustomerEmail(),
+                        () -> seatService.findAndHoldSeats(flight, request.getNumSeats(), request.getCustomerEmail())));
         return ResponseEntity.ok(seatHold);
     }
 
+    /**
+     * Join a flight's waiting room, getting a ticket and its position in the queue.
+     */
+    @PostMapping({"/seats/queue", "/flights/{flightId}/seats/queue"})
+    public ResponseEntity<QueueTicket> joinQueue(@PathVariable(required = false) String flightId,
+                                                 @Valid @RequestBody JoinQueueRequest request) {
+        return ResponseEntity.ok(waitingRoom.join(flightOrDefault(flightId), request.getCustomerEmail()));
+    }
+
+    /**
+     * Get a waiting-room ticket's current position, and whether it is admitted to hold seats.
+     */
+    @GetMapping({"/seats/queue/{ticket}", "/flights/{flightId}/seats/queue/{ticket}"})
+    public ResponseEntity<QueueTicket> getQueueTicket(@PathVariable(required = false) String flightId,
+                                                      @PathVariable String ticket) {
+        return ResponseEntity.ok(waitingRoom.status(flightOrDefault(flightId), ticket));
+    }
+
     /**
      * Reserve held seats for a customer.
      */
-    @PostMapping("/reserve")
-    public ResponseEntity<String> reserveHeldSeats(@Valid @RequestBody ReserveSeatsRequest request) {
-        String confirmationCode = seatService.reserveHeldSeats(request.getHoldId(), request.getCustomerEmail());
+    @PostMapping({"/seats/reserve", "/flights/{flightId}/seats/reserve"})
+    public ResponseEntity<String> reserveHeldSeats(@PathVariable(required = false) String flightId,
+                                                   @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                                   @Valid @RequestBody ReserveSeatsRequest request) {
+        String flight = flightOrDefault(flightId);
+        String confirmationCode = idempotencyCache.execute(idempotencyScope("reserve", flight, request.getCustomerEmail()), idempotencyKey,
+                () -> seatService.reserveHeldSeats(flight, request.getHoldId(), request.getCustomerEmail()));
         return ResponseEntity.ok(confirmationCode);
     }
 
+    /**
+     * Release held seats back to inventory before the hold expires.
+     */
+    @PostMapping({"/seats/release", "/flights/{flightId}/seats/release"})
+    public ResponseEntity<Void> releaseHold(@PathVariable(required = false) String flightId,
+                                            @Valid @RequestBody ReleaseHoldRequest request) {
+        seatService.releaseHold(flightOrDefault(flightId), request.getHoldId(), request.getCustomerEmail());
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Directly reserve best available seats within a price range.
      */
-    @PostMapping("/reserve-direct")
-    public ResponseEntity<String> reserveDirect(@Valid @RequestBody DirectReservationRequest request) {
-        String confirmationCode = seatService.reserveBestAvailableSeats(
-                request.getNumSeats(),
-                request.getCustomerEmail(),
-                (int) request.getMinPrice(),
-                (int) request.getMaxPrice(),
-                Optional.ofNullable(request.getLevelNames())
-        );
+    @PostMapping({"/seats/reserve-direct", "/flights/{flightId}/seats/reserve-direct"})
+    public ResponseEntity<String> reserveDirect(@PathVariable(required = false) String flightId,
+                                                @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                                @Valid @RequestBody DirectReservationRequest request) {
+        String flight = flightOrDefault(flightId);
+        String confirmationCode = idempotencyCache.execute(idempotencyScope("reserve-direct", flight, request.getCustomerEmail()), idempotencyKey,
+                () -> seatService.reserveBestAvailableSeats(
+                        flight,
+                        request.getNumSeats(),
+                        request.getCustomerEmail(),
+                        (int) request.getMinPrice(),
+                        (int) request.getMaxPrice(),
+                        Optional.ofNullable(request.getLevelNames())
+                ));
         return ResponseEntity.ok(confirmationCode);
     }
+
+    /**
+     * Apply many hold, reserve and release operations in one request, with a result per operation.
+     */
+    @PostMapping({"/seats/batch", "/flights/{flightId}/seats/batch"})
+    public ResponseEntity<List<BatchResult>> processBatch(@PathVariable(required = false) String flightId,
+                                                          @Valid @RequestBody BatchRequest request) {
+        waitingRoom.checkBatch(flightOrDefault(flightId), request.getOperations());
+        List<BatchResult> results = seatService.processBatch(flightOrDefault(flightId), request.getOperations());
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Get a reservation by its confirmation code.
+     */
+    @GetMapping("/reservations/{confirmationCode}")
+    public ResponseEntity<Reservation> getReservation(@PathVariable String confirmationCode) {
+        return ResponseEntity.ok(seatService.findReservation(confirmationCode));
+    }
+
+    /**
+     * Get every reservation made by a customer, oldest first.
+     */
+    @GetMapping("/reservations")
+    public ResponseEntity<List<Reservation>> getReservations(@RequestParam String customerEmail) {
+        return ResponseEntity.ok(seatService.findReservations(customerEmail));
+    }
+
+    /**
+     * Cancel a reservation, returning its seats to inventory.
+     */
+    @DeleteMapping("/reservations/{confirmationCode}")
+    public ResponseEntity<Reservation> cancelReservation(@PathVariable String confirmationCode,
+                                                         @RequestParam String customerEmail) {
+        return ResponseEntity.ok(seatService.cancelReservation(confirmationCode, customerEmail));
+    }
+
+    // If-None-Match holds "*" or a comma-separated list of tags, possibly weak
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.strip();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Keys are only meaningful for the same operation, flight and customer; shared with SeatRouter
+    static String idempotencyScope(String operation, String flightId, String customerEmail) {
+        return operation + ':' + flightId + ':' + customerEmail;
+    }
+
+    // Requests without a flight path segment operate on the default flight
+    private static String flightOrDefault(String flightId) {
+        return flightId != null ? flightId : AirplaneLayout.DEFAULT_FLIGHT_ID;
+    }
 }
@@ -0,0 +1,279 @@
+package com.ykhaleq.airlineticketservice.controller;
+
+import com.ykhaleq.airlineticketservice.dto.BatchRequest;
+import com.ykhaleq.airlineticketservice.dto.DirectReservationRequest;
+import com.ykhaleq.airlineticketservice.dto.JoinQueueRequest;
+import com.ykhaleq.airlineticketservice.dto.ReleaseHoldRequest;
+import com.ykhaleq.airlineticketservice.dto.ReserveSeatsRequest;
+import com.ykhaleq.airlineticketservice.dto.SeatHoldRequest;
+import com.ykhaleq.airlineticketservice.exception.FlightNotFoundException;
+import com.ykhaleq.airlineticketservice.exception.InvalidRequestException;
+import com.ykhaleq.airlineticketservice.exception.ReservationNotFoundException;
+import com.ykhaleq.airlineticketservice.exception.SeatHoldNotFoundException;
+import com.ykhaleq.airlineticketservice.exception.SeatsSoldOutException;
+import com.ykhaleq.airlineticketservice.exception.TooManyRequestsException;
+import com.ykhaleq.airlineticketservice.model.AirplaneLayout;
+import com.ykhaleq.airlineticketservice.service.IdempotencyCache;
+import com.ykhaleq.airlineticketservice.service.SeatService;
+import com.ykhaleq.airlineticketservice.service.WaitingRoom;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Non-blocking counterpart of {@link SeatController}, served by WebFlux functional routes on Reactor Netty.
+ * Uses the same paths, request bodies, error format and idempotency keys, plus a streaming availability endpoint.
+ * Seat operations can block on journal writes, metrics and admission locks, so they run on the bounded elastic
+ * scheduler and the event loop only decodes requests and writes responses.
+ */
+public class SeatRouter {
+
+    private static final ParameterizedTypeReference<List<SeatService.AvailableSeats>> AVAILABLE_SEATS =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final long MIN_STREAM_INTERVAL_MILLIS = 100;
+
+    private final SeatService seatService;
+    private final Validator validator;
+    private final WaitingRoom waitingRoom;
+    private final IdempotencyCache idempotencyCache; // Shared with SeatController, so a retry on either API is recognized
+
+    public SeatRouter(SeatService seatService, Validator validator, WaitingRoom waitingRoom, IdempotencyCache idempotencyCache) {
+        this.seatService = seatService;
+        this.validator = validator;
+        this.waitingRoom = waitingRoom;
+        this.idempotencyCache = idempotencyCache;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET("/seats/available/stream", this::streamAvailableSeats)
+                .GET("/flights/{flightId}/seats/available/stream", this::streamAvailableSeats)
+                .GET("/seats/available", this::getAvailableSeats)
+                .GET("/flights/{flightId}/seats/available", this::getAvailableSeats)
+                .POST("/seats/hold", this::holdSeats)
+                .POST("/flights/{flightId}/seats/hold", this::holdSeats)
+                .POST("/seats/reserve", this::reserveHeldSeats)
+                .POST("/flights/{flightId}/seats/reserve", this::reserveHeldSeats)
+                .POST("/seats/queue", this::joinQueue)
+                .POST("/flights/{flightId}/seats/queue", this::joinQueue)
+                .GET("/seats/queue/{ticket}", this::getQueueTicket)
+                .GET("/flights/{flightId}/seats/queue/{ticket}", this::getQueueTicket)
+                .POST("/seats/release", this::releaseHold)
+                .POST("/flights/{flightId}/seats/release", this::releaseHold)
+                .POST("/seats/reserve-direct", this::reserveDirect)
+                .POST("/flights/{flightId}/seats/reserve-direct", this::reserveDirect)
+                .POST("/seats/batch", this::processBatch)
+                .POST("/flights/{flightId}/seats/batch", this::processBatch)
+                .onError(Throwable.class, this::errorResponse)
+                .build();
+    }
+
+    /**
+     * Get available seats by level.
+     */
+    Mono<ServerResponse> getAvailableSeats(ServerRequest request) {
+        return Mono.fromSupplier(() -> seatService.numSeatsAvailable(flightId(request), levelNames(request)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(availableSeats -> ServerResponse.ok().bodyValue(availableSeats));
+    }
+
+    /**
+     * Stream available seats by level as server-sent events, one snapshot every {@code intervalMillis}.
+     * Snapshots a slow client cannot keep up with are dropped rather than buffered.
+     */
+    Mono<ServerResponse> streamAvailableSeats(ServerRequest request) {
+        String flightId = flightId(request);
+        Optional<String[]> levelNames = levelNames(request);
+
+        // Fail with 400 for a bad interval, or 404 for an unknown flight, before the stream starts
+        return Mono.fromSupplier(() -> seatService.numSeatsAvailable(flightId, levelNames))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(initial -> {
+                    Flux<List<SeatService.AvailableSeats>> updates = Flux.interval(Duration.ofMillis(intervalMillis(request)))
+                            .onBackpressureDrop()
+                            .publishOn(Schedulers.boundedElastic())
+                            .map(tick -> seatService.numSeatsAvailable(flightId, levelNames))
+                            .startWith(initial);
+                    return ServerResponse.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(updates, AVAILABLE_SEATS);
+                });
+    }
+
+    /**
+     * Hold seats for a customer.
+     */
+    Mono<ServerResponse> holdSeats(ServerRequest request) {
+        return body(request, SeatHoldRequest.class)
+                .publishOn(Schedulers.boundedElastic())
+                .map(hold -> idempotencyCache.execute(
+                        SeatController.idempotencyScope("hold", flightId(request), hold.getCustomerEmail()), idempotencyKey(request),
+                        () -> waitingRoom.hold(flightId(request), request.headers().firstHeader(SeatController.WAITING_ROOM_TICKET),
+                                hold.getCustomerEmail(),
+                                () -> seatService.findAndHoldSeats(flightId(request), hold.getNumSeats(), hold.getCustomerEmail()))))
+                .flatMap(seatHold -> ServerResponse.ok().bodyValue(seatHold));
+    }
+
+    /**
+     * Join a flight's waiting room, getting a ticket and its position in the queue.
+     */
+    Mono<ServerResponse> joinQueue(ServerRequest request) {
+        return body(request, JoinQueueRequest.class)
+                .publishOn(Schedulers.boundedElastic())
+                .map(join -> waitingRoom.join(flightId(request), join.getCustomerEmail()))
+                .flatMap(ticket -> ServerResponse.ok().bodyValue(ticket));
+    }
+
+    /**
+     * Get a waiting-room ticket's current position, and whether it is admitted to hold seats.
+     */
+    Mono<ServerResponse> getQueueTicket(ServerRequest request) {
+        return Mono.fromSupplier(() -> waitingRoom.status(flightId(request), request.pathVariable("ticket")))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(ticket -> ServerResponse.ok().bodyValue(ticket));
+    }
+
+    /**
+     * Reserve held seats for a customer.
+     */
+    Mono<ServerResponse> reserveHeldSeats(ServerRequest request) {
+        return body(request, ReserveSeatsRequest.class)
+                .publishOn(Schedulers.boundedElastic())
+                .map(reserve -> idempotencyCache.execute(
+                        SeatController.idempotencyScope("reserve", flightId(request), reserve.getCustomerEmail()), idempotencyKey(request),
+                        () -> seatService.reserveHeldSeats(flightId(request), reserve.getHoldId(), reserve.getCustomerEmail())))
+                .flatMap(confirmationCode -> ServerResponse.ok().bodyValue(confirmationCode));
+    }
+
+    /**
+     * Release held seats back to inventory before the hold expires.
+     */
+    Mono<ServerResponse> releaseHold(ServerRequest request) {
+        return body(request, ReleaseHoldRequest.class)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(release -> seatService.releaseHold(flightId(request), release.getHoldId(), release.getCustomerEmail()))
+                .flatMap(release -> ServerResponse.noContent().build());
+    }
+
+    /**
+     * Directly reserve best available seats within a price range.
+     */
+    Mono<ServerResponse> reserveDirect(ServerRequest request) {
+        return body(request, DirectReservationRequest.class)
+                .publishOn(Schedulers.boundedElastic())
+                .map(direct -> idempotencyCache.execute(
+                        SeatController.idempotencyScope("reserve-direct", flightId(request), direct.getCustomerEmail()), idempotencyKey(request),
+                        () -> seatService.reserveBestAvailableSeats(
+                                flightId(request),
+                                direct.getNumSeats(),
+                                direct.getCustomerEmail(),
+                                (int) direct.getMinPrice(),
+                                (int) direct.getMaxPrice(),
+                                Optional.ofNullable(direct.getLevelNames()))))
+                .flatMap(confirmationCode -> ServerResponse.ok().bodyValue(confirmationCode));
+    }
+
+    /**
+     * Apply many hold, reserve and release operations in one request, with a result per operation.
+     */
+    Mono<ServerResponse> processBatch(ServerRequest request) {
+        return body(request, BatchRequest.class)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(batch -> waitingRoom.checkBatch(flightId(request), batch.getOperations()))
+                .map(batch -> seatService.processBatch(flightId(request), batch.getOperations()))
+                .flatMap(results -> ServerResponse.ok().bodyValue(results));
+    }
+
+    // Decode and validate a request body, failing with the first constraint message like the MVC controller
+    private <T> Mono<T> body(ServerRequest request, Class<T> type) {
+        return request.bodyToMono(type)
+                .switchIfEmpty(Mono.error(() -> new InvalidRequestException("Request body is required.")))
+                .map(body -> {
+                    Set<ConstraintViolation<T>> violations = validator.validate(body);
+                    if (!violations.isEmpty()) {
+                        throw new InvalidRequestException(violations.iterator().next().getMessage());
+                    }
+                    return body;
+                });
+    }
+
+    private static String idempotencyKey(ServerRequest request) {
+        return request.headers().firstHeader(SeatController.IDEMPOTENCY_KEY);
+    }
+
+    // Requests without a flight path segment operate on the default flight
+    private static String flightId(ServerRequest request) {
+        return request.pathVariables().getOrDefault("flightId", AirplaneLayout.DEFAULT_FLIGHT_ID);
+    }
+
+    private static long intervalMillis(ServerRequest request) {
+        try {
+            return Math.max(MIN_STREAM_INTERVAL_MILLIS,
+                    request.queryParam("intervalMillis").map(Long::parseLong).orElse(1000L));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("intervalMillis must be a number of milliseconds.");
+        }
+    }
+
+    // Accept both repeated and comma-separated levelNames parameters
+    private static Optional<String[]> levelNames(ServerRequest request) {
+        List<String> values = request.queryParams().get("levelNames");
+        if (values == null || values.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(values.stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .toArray(String[]::new));
+    }
+
+    // Map exceptions to the same statuses and body as GlobalExceptionHandler
+    private Mono<ServerResponse> errorResponse(Throwable ex, ServerRequest request) {
+        HttpStatus status;
+        String message = ex.getMessage();
+        if (ex instanceof SeatHoldNotFoundException || ex instanceof FlightNotFoundException
+                || ex instanceof ReservationNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (ex instanceof IllegalArgumentException || ex instanceof InvalidRequestException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else if (ex instanceof ServerWebInputException inputException) {
+            status = HttpStatus.BAD_REQUEST;
+            message = inputException.getReason();
+        } else if (ex instanceof IllegalStateException || ex instanceof SeatsSoldOutException) {
+            status = HttpStatus.CONFLICT;
+        } else if (ex instanceof TooManyRequestsException) {
+            status = HttpStatus.TOO_MANY_REQUESTS;
+        } else {
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("status", status.value());
+        errorDetails.put("error", status.getReasonPhrase());
+        errorDetails.put("message", message);
+        ServerResponse.BodyBuilder response = ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON);
+        if (ex instanceof TooManyRequestsException tooMany && tooMany.getRetryAfterSeconds() > 0) {
+            response.header(HttpHeaders.RETRY_AFTER, Long.toString(tooMany.getRetryAfterSeconds()));
+        }
+        return response.bodyValue(errorDetails);
+    }
+}
@@ -0,0 +1,23 @@
+package com.ykhaleq.airlineticketservice.dto;
+
+import java.util.List;
+
+/**
+ * Availability pushed to subscribers: every level on the initial snapshot, and afterwards only the levels
+ * that changed, with the seats whose state changed since the previous update.
+ * All values are absolute, so an update can be applied more than once.
+ */
+public record AvailabilityUpdate(String flightId, List<LevelUpdate> levels) {
+
+    public record LevelUpdate(String levelName, long availableSeats, List<SeatChange> changedSeats) {
+    }
+
+    public record SeatChange(String seatNumber, SeatState state) {
+    }
+
+    public enum SeatState {
+        AVAILABLE,
+        HELD,
+        RESERVED
+    }
+}
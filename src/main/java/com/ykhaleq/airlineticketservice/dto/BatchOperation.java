@@ -0,0 +1,60 @@
+package com.ykhaleq.airlineticketservice.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public class BatchOperation {
+
+    public enum Type {
+        HOLD,    // Hold numSeats First Class seats
+        RESERVE, // Reserve the seats of holdId
+        RELEASE  // Return the seats of holdId to inventory
+    }
+
+    @NotNull(message = "Operation type is required.")
+    private Type type;
+
+    @Max(value = 100, message = "Number of seats must be at most 100.")
+    private int numSeats; // Used by HOLD
+
+    private long holdId;  // Used by RESERVE and RELEASE
+
+    @NotBlank(message = "Customer email is required.")
+    @Email(message = "Invalid email format.")
+    private String customerEmail;
+
+    // Getters and setters
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public int getNumSeats() {
+        return numSeats;
+    }
+
+    public void setNumSeats(int numSeats) {
+        this.numSeats = numSeats;
+    }
+
+    public long getHoldId() {
+        return holdId;
+    }
+
+    public void setHoldId(long holdId) {
+        this.holdId = holdId;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public void setCustomerEmail(String customerEmail) {
+        this.customerEmail = customerEmail;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ykhaleq.airlineticketservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchRequest {
+
+    @NotEmpty(message = "At least one operation is required.")
+    @Size(max = 500, message = "A batch may contain at most 500 operations.")
+    private List<@Valid BatchOperation> operations;
+
+    // Getters and setters
+    public List<BatchOperation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<BatchOperation> operations) {
+        this.operations = operations;
+    }
+}
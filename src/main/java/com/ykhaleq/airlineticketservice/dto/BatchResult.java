@@ -0,0 +1,62 @@
+package com.ykhaleq.airlineticketservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.ykhaleq.airlineticketservice.model.SeatHold;
+
+/**
+ * Outcome of one operation of a batch, at the same position as the operation in the request.
+ * Successful operations carry their seat hold (HOLD) or confirmation code (RESERVE); failed ones carry an error message.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchResult {
+    private final BatchOperation.Type type;
+    private final boolean success;
+    private final SeatHold seatHold;
+    private final String confirmationCode;
+    private final String error;
+
+    private BatchResult(BatchOperation.Type type, boolean success, SeatHold seatHold, String confirmationCode, String error) {
+        this.type = type;
+        this.success = success;
+        this.seatHold = seatHold;
+        this.confirmationCode = confirmationCode;
+        this.error = error;
+    }
+
+    public static BatchResult held(SeatHold seatHold) {
+        return new BatchResult(BatchOperation.Type.HOLD, true, seatHold, null, null);
+    }
+
+    public static BatchResult reserved(String confirmationCode) {
+        return new BatchResult(BatchOperation.Type.RESERVE, true, null, confirmationCode, null);
+    }
+
+    public static BatchResult released() {
+        return new BatchResult(BatchOperation.Type.RELEASE, true, null, null, null);
+    }
+
+    public static BatchResult failed(BatchOperation.Type type, String error) {
+        return new BatchResult(type, false, null, null, error);
+    }
+
+    // Getters
+    public BatchOperation.Type getType() {
+        return type;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public SeatHold getSeatHold() {
+        return seatHold;
+    }
+
+    public String getConfirmationCode() {
+        return confirmationCode;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -1,12 +1,14 @@
 package com.ykhaleq.airlineticketservice.dto;
 
 import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 
 public class DirectReservationRequest {
 
     @Min(value = 1, message = "Number of seats must be greater than 0.")
+    @Max(value = 100, message = "Number of seats must be at most 100.")
     private int numSeats;
 
     @Min(value = 1, message = "Maximum price must be greater than 0.")
@@ -0,0 +1,20 @@
+package com.ykhaleq.airlineticketservice.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+
+public class JoinQueueRequest {
+
+    @NotBlank(message = "Customer email is required.")
+    @Email(message = "Invalid email format.")
+    private String customerEmail;
+
+    // Getters and setters
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public void setCustomerEmail(String customerEmail) {
+        this.customerEmail = customerEmail;
+    }
+}
@@ -0,0 +1,8 @@
+package com.ykhaleq.airlineticketservice.dto;
+
+/**
+ * A place in a flight's waiting room. Once {@code admitted}, the token is sent as the {@code Waiting-Room-Ticket}
+ * header of one hold request; until then {@code position} counts the tickets up to and including this one.
+ */
+public record QueueTicket(String ticket, String flightId, long position, boolean admitted, long estimatedWaitSeconds) {
+}
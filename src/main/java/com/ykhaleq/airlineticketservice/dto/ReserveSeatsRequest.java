@@ -7,18 +7,18 @@ import jakarta.validation.constraints.NotBlank;
 public class ReserveSeatsRequest {
 
     @Min(value = 1, message = "Hold ID must be greater than 0.")
-    private int holdId;
+    private long holdId;
 
     @NotBlank(message = "Customer email is required.")
     @Email(message = "Invalid email format.")
     private String customerEmail;
 
     // Getters and setters
-    public int getHoldId() {
+    public long getHoldId() {
         return holdId;
     }
 
-    public void setHoldId(int holdId) {
+    public void setHoldId(long holdId) {
         this.holdId = holdId;
     }
 
@@ -0,0 +1,22 @@
+package com.ykhaleq.airlineticketservice.dto;
+
+import java.util.List;
+
+/**
+ * Seat map of a flight: every level's grid, one entry per row. A row's {@code seats} string has one character
+ * per seat letter, in the order of {@code seatLetters}: {@code A} available, {@code H} held, {@code R} reserved
+ * and {@code X} blocked.
+ */
+public record SeatMap(String flightId, long version, List<LevelMap> levels) {
+
+    public static final char AVAILABLE = 'A';
+    public static final char HELD = 'H';
+    public static final char RESERVED = 'R';
+    public static final char BLOCKED = 'X';
+
+    public record LevelMap(String levelName, String seatLetters, List<RowMap> rows) {
+    }
+
+    public record RowMap(int row, boolean exit, String seats) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.ykhaleq.airlineticketservice.exception;
+
+public class FlightNotFoundException extends RuntimeException {
+    public FlightNotFoundException(String message) {
+        super(message);
+    }
+}
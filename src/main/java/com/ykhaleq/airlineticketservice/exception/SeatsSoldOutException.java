@@ -0,0 +1,7 @@
+package com.ykhaleq.airlineticketservice.exception;
+
+public class SeatsSoldOutException extends RuntimeException {
+    public SeatsSoldOutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ykhaleq.airlineticketservice.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    private final long retryAfterSeconds; // 0 when there is no meaningful time to wait
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
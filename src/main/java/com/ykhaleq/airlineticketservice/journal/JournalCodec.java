@@ -0,0 +1,142 @@
+package com.ykhaleq.airlineticketservice.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of journal events: a one-byte type followed by fixed-width fields.
+ * Strings are UTF-8 with a two-byte length, seat lists are a two-byte level position,
+ * a four-byte count and four bytes per seat index.
+ */
+final class JournalCodec {
+
+    private static final byte HOLD_PLACED = 1;
+    private static final byte HOLD_RESERVED = 2;
+    private static final byte HOLD_RELEASED = 3;
+    private static final byte SEATS_RESERVED = 4;
+    private static final byte RESERVATION_CANCELLED = 5;
+
+    private JournalCodec() {
+    }
+
+    static byte[] encode(JournalEvent event) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(event));
+        if (event instanceof JournalEvent.HoldPlaced hold) {
+            buffer.put(HOLD_PLACED).putLong(hold.holdId());
+            putString(buffer, hold.flightId());
+            putString(buffer, hold.customerEmail());
+            buffer.putLong(hold.expiresAtMillis());
+            putSeats(buffer, hold.seats());
+        } else if (event instanceof JournalEvent.HoldReserved reserved) {
+            buffer.put(HOLD_RESERVED).putLong(reserved.holdId());
+        } else if (event instanceof JournalEvent.HoldReleased released) {
+            buffer.put(HOLD_RELEASED).putLong(released.holdId());
+        } else if (event instanceof JournalEvent.SeatsReserved reserved) {
+            buffer.put(SEATS_RESERVED).putLong(reserved.reservationId()).put((byte) (reserved.direct() ? 1 : 0));
+            putString(buffer, reserved.flightId());
+            putString(buffer, reserved.customerEmail());
+            putSeatGroups(buffer, reserved.seats());
+        } else if (event instanceof JournalEvent.ReservationCancelled cancelled) {
+            buffer.put(RESERVATION_CANCELLED).putLong(cancelled.reservationId());
+            putString(buffer, cancelled.flightId());
+            putSeatGroups(buffer, cancelled.seats());
+        }
+        return buffer.array();
+    }
+
+    static JournalEvent decode(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case HOLD_PLACED:
+                return new JournalEvent.HoldPlaced(buffer.getLong(), getString(buffer), getString(buffer),
+                        buffer.getLong(), getSeats(buffer));
+            case HOLD_RESERVED:
+                return new JournalEvent.HoldReserved(buffer.getLong());
+            case HOLD_RELEASED:
+                return new JournalEvent.HoldReleased(buffer.getLong());
+            case SEATS_RESERVED:
+                long reservationId = buffer.getLong();
+                boolean direct = buffer.get() != 0;
+                String flightId = getString(buffer);
+                String customerEmail = getString(buffer);
+                List<JournalEvent.LevelSeats> seats = getSeatGroups(buffer);
+                return new JournalEvent.SeatsReserved(reservationId, direct, flightId, customerEmail, seats);
+            case RESERVATION_CANCELLED:
+                long cancelledId = buffer.getLong();
+                String cancelledFlightId = getString(buffer);
+                return new JournalEvent.ReservationCancelled(cancelledId, cancelledFlightId, getSeatGroups(buffer));
+            default:
+                throw new IllegalArgumentException("Unknown journal record type: " + type);
+        }
+    }
+
+    private static int encodedSize(JournalEvent event) {
+        if (event instanceof JournalEvent.HoldPlaced hold) {
+            return 1 + 8 + stringSize(hold.flightId()) + stringSize(hold.customerEmail()) + 8 + seatsSize(hold.seats());
+        } else if (event instanceof JournalEvent.SeatsReserved reserved) {
+            int size = 1 + 8 + 1 + stringSize(reserved.flightId()) + stringSize(reserved.customerEmail()) + 2;
+            for (JournalEvent.LevelSeats seats : reserved.seats()) {
+                size += seatsSize(seats);
+            }
+            return size;
+        } else if (event instanceof JournalEvent.ReservationCancelled cancelled) {
+            int size = 1 + 8 + stringSize(cancelled.flightId()) + 2;
+            for (JournalEvent.LevelSeats seats : cancelled.seats()) {
+                size += seatsSize(seats);
+            }
+            return size;
+        }
+        return 1 + 8;
+    }
+
+    private static int stringSize(String value) {
+        return 2 + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static int seatsSize(JournalEvent.LevelSeats seats) {
+        return 2 + 4 + 4 * seats.seatIndexes().length;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putSeats(ByteBuffer buffer, JournalEvent.LevelSeats seats) {
+        buffer.putShort((short) seats.level()).putInt(seats.seatIndexes().length);
+        for (int index : seats.seatIndexes()) {
+            buffer.putInt(index);
+        }
+    }
+
+    private static void putSeatGroups(ByteBuffer buffer, List<JournalEvent.LevelSeats> groups) {
+        buffer.putShort((short) groups.size());
+        groups.forEach(seats -> putSeats(buffer, seats));
+    }
+
+    private static List<JournalEvent.LevelSeats> getSeatGroups(ByteBuffer buffer) {
+        int groups = buffer.getShort();
+        List<JournalEvent.LevelSeats> seats = new ArrayList<>(groups);
+        for (int i = 0; i < groups; i++) {
+            seats.add(getSeats(buffer));
+        }
+        return seats;
+    }
+
+    private static JournalEvent.LevelSeats getSeats(ByteBuffer buffer) {
+        int level = buffer.getShort();
+        int[] indexes = new int[buffer.getInt()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = buffer.getInt();
+        }
+        return new JournalEvent.LevelSeats(level, indexes);
+    }
+}
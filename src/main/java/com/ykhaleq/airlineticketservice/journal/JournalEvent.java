@@ -0,0 +1,37 @@
+package com.ykhaleq.airlineticketservice.journal;
+
+import java.util.List;
+
+/**
+ * Seat state transitions recorded in the reservation journal.
+ * Seats are identified by the position of their level within the flight's layout and their index in that level.
+ */
+public sealed interface JournalEvent {
+
+    // Seats were claimed for a new hold
+    record HoldPlaced(long holdId, String flightId, String customerEmail, long expiresAtMillis,
+                      LevelSeats seats) implements JournalEvent {
+    }
+
+    // The seats of a hold were reserved
+    record HoldReserved(long holdId) implements JournalEvent {
+    }
+
+    // The seats of a hold were returned to inventory, e.g. because it expired
+    record HoldReleased(long holdId) implements JournalEvent {
+    }
+
+    // Seats were reserved outright: a direct reservation, or a committed hold captured by a snapshot.
+    // A reservation id of 0 marks seats that are not attributed to any reservation.
+    record SeatsReserved(long reservationId, boolean direct, String flightId, String customerEmail,
+                         List<LevelSeats> seats) implements JournalEvent {
+    }
+
+    // A reservation was cancelled and the listed seats returned to inventory
+    record ReservationCancelled(long reservationId, String flightId, List<LevelSeats> seats) implements JournalEvent {
+    }
+
+    // A set of seats within one seating level
+    record LevelSeats(int level, int[] seatIndexes) {
+    }
+}
@@ -0,0 +1,312 @@
+package com.ykhaleq.airlineticketservice.journal;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of seat hold and reservation events.
+ *
+ * Events are framed as {@code [length][crc32][payload]} and appended to fixed-size segment files
+ * {@code journal-<n>.log}. Appends are flushed to disk every {@code fsync-batch-size} records and on a
+ * short timer, so a seat claim never waits on a disk round trip of its own.
+ *
+ * A snapshot {@code snapshot-<n>.bin} holds events that recreate the complete seat state, and covers
+ * every segment numbered below {@code n}; older segments are deleted once it is written. Recovery replays
+ * the latest snapshot followed by the remaining segments. Because the snapshot is taken while requests are
+ * still being served, it may already contain the effect of some events in segment {@code n} and later,
+ * so consumers must apply events idempotently.
+ */
+@Component
+public class ReservationJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationJournal.class);
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int RECORD_HEADER_BYTES = 8; // Payload length + CRC32
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int fsyncBatchSize;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    private FileChannel segmentChannel;   // Guarded by appendLock
+    private MappedByteBuffer segment;     // Guarded by appendLock
+    private long segmentSequence;         // Guarded by appendLock
+    private int unsyncedRecords;          // Guarded by appendLock
+
+    @Autowired
+    public ReservationJournal(@Value("${seat.journal.enabled:false}") boolean enabled,
+                              @Value("${seat.journal.directory:journal}") String directory,
+                              @Value("${seat.journal.segment-bytes:67108864}") int segmentBytes,
+                              @Value("${seat.journal.fsync-batch-size:64}") int fsyncBatchSize) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+        this.fsyncBatchSize = Math.max(1, fsyncBatchSize);
+    }
+
+    // A journal that records nothing, for services running purely in memory
+    public static ReservationJournal disabled() {
+        return new ReservationJournal(false, ".", 0, 1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replay the latest snapshot and every later segment into {@code handler}, then open a new segment for appends.
+     * Must be called once before the first {@link #append}.
+     */
+    public void recover(Consumer<JournalEvent> handler) {
+        if (!enabled) {
+            return;
+        }
+        appendLock.lock();
+        try {
+            Files.createDirectories(directory);
+            OptionalLong snapshot = latestSequence(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            long firstSegment = snapshot.orElse(0);
+            long replayed = 0;
+            if (snapshot.isPresent()) {
+                replayed += replayFile(directory.resolve(snapshotName(snapshot.getAsLong())), handler);
+            }
+            long lastSegment = firstSegment - 1;
+            for (long sequence : sequences(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                if (sequence >= firstSegment) {
+                    replayed += replayFile(directory.resolve(segmentName(sequence)), handler);
+                    lastSegment = sequence;
+                }
+            }
+            log.info("Recovered {} journal events from {}", replayed, directory.toAbsolutePath());
+            openSegment(Math.max(lastSegment + 1, firstSegment));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover reservation journal", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Append an event. The record reaches disk with the next batched flush.
+     */
+    public void append(JournalEvent event) {
+        if (!enabled) {
+            return;
+        }
+        byte[] payload = JournalCodec.encode(event);
+        if (payload.length + RECORD_HEADER_BYTES > segmentBytes) {
+            throw new IllegalArgumentException("Journal record of " + payload.length + " bytes exceeds the segment size.");
+        }
+        appendLock.lock();
+        try {
+            if (segment == null) {
+                throw new IllegalStateException("Reservation journal has not been recovered.");
+            }
+            if (segment.remaining() < payload.length + RECORD_HEADER_BYTES) {
+                openSegment(segmentSequence + 1);
+            }
+            segment.putInt(payload.length).putInt(checksum(payload)).put(payload);
+            if (++unsyncedRecords >= fsyncBatchSize) {
+                force();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to reservation journal", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Flush appended records to disk. Runs on a timer so a partial batch is never left unsynced for long.
+     */
+    @Scheduled(fixedDelayString = "${seat.journal.fsync-interval-millis:50}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        appendLock.lock();
+        try {
+            if (segment != null && unsyncedRecords > 0) {
+                force();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Write a compact snapshot of the current seat state and delete the segments it supersedes.
+     *
+     * @param state supplies events that recreate the complete state when replayed from empty
+     */
+    public void snapshot(Supplier<List<JournalEvent>> state) {
+        if (!enabled || !snapshotLock.tryLock()) {
+            return;
+        }
+        try {
+            // Start a new segment; everything appended before this point is part of the captured state
+            long firstSegment;
+            appendLock.lock();
+            try {
+                if (segment == null) {
+                    return;
+                }
+                openSegment(segmentSequence + 1);
+                firstSegment = segmentSequence;
+            } finally {
+                appendLock.unlock();
+            }
+
+            List<JournalEvent> events = state.get();
+            Path snapshotFile = directory.resolve(snapshotName(firstSegment));
+            Path tempFile = directory.resolve(snapshotName(firstSegment) + ".tmp");
+            try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (JournalEvent event : events) {
+                    byte[] payload = JournalCodec.encode(event);
+                    ByteBuffer record = ByteBuffer.allocate(payload.length + RECORD_HEADER_BYTES);
+                    record.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+                    while (record.hasRemaining()) {
+                        out.write(record);
+                    }
+                }
+                out.force(true);
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            for (long sequence : sequences(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+                if (sequence < firstSegment) {
+                    Files.deleteIfExists(directory.resolve(segmentName(sequence)));
+                }
+            }
+            for (long sequence : sequences(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+                if (sequence < firstSegment) {
+                    Files.deleteIfExists(directory.resolve(snapshotName(sequence)));
+                }
+            }
+            log.info("Wrote journal snapshot of {} events covering segments before {}", events.size(), firstSegment);
+        } catch (IOException e) {
+            log.error("Failed to write reservation journal snapshot", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        appendLock.lock();
+        try {
+            closeSegment();
+        } catch (IOException e) {
+            log.warn("Failed to close reservation journal", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void openSegment(long sequence) throws IOException {
+        closeSegment();
+        segmentChannel = FileChannel.open(directory.resolve(segmentName(sequence)),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        segmentSequence = sequence;
+    }
+
+    private void closeSegment() throws IOException {
+        if (segment != null) {
+            force();
+            segment = null;
+        }
+        if (segmentChannel != null) {
+            segmentChannel.close();
+            segmentChannel = null;
+        }
+    }
+
+    private void force() {
+        segment.force();
+        unsyncedRecords = 0;
+    }
+
+    // Replay every intact record of a file, stopping at the zero-filled tail or a torn write
+    private long replayFile(Path file, Consumer<JournalEvent> handler) throws IOException {
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+                int length = buffer.getInt();
+                int crc = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                if (checksum(payload) != crc) {
+                    log.warn("Stopping replay of {} at a corrupt record", file.getFileName());
+                    break;
+                }
+                handler.accept(JournalCodec.decode(ByteBuffer.wrap(payload)));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private OptionalLong latestSequence(String prefix, String suffix) throws IOException {
+        List<Long> sequences = sequences(prefix, suffix);
+        return sequences.isEmpty() ? OptionalLong.empty() : OptionalLong.of(sequences.get(sequences.size() - 1));
+    }
+
+    // Sequence numbers of the files with the given prefix and suffix, ascending
+    private List<Long> sequences(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static String segmentName(long sequence) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+    }
+
+    private static String snapshotName(long sequence) {
+        return String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX);
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
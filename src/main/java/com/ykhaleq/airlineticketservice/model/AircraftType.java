@@ -0,0 +1,48 @@
+package com.ykhaleq.airlineticketservice.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AircraftType {
+    private final String name;               // Aircraft type code, e.g. "A320"
+    private final List<CabinLayout> cabins;  // Seating levels in cabin order
+    private final String holdLevel;          // Level that holds are placed in
+
+    public AircraftType(String name, List<CabinLayout> cabins) {
+        this(name, cabins, AirplaneLayout.HOLD_LEVEL);
+    }
+
+    public AircraftType(String name, List<CabinLayout> cabins, String holdLevel) {
+        if (cabins.isEmpty()) {
+            throw new IllegalArgumentException("Aircraft " + name + " needs at least one seating level.");
+        }
+        if (cabins.stream().noneMatch(cabin -> cabin.getLevelName().equalsIgnoreCase(holdLevel))) {
+            throw new IllegalArgumentException("Aircraft " + name + " has no hold level: " + holdLevel);
+        }
+        this.name = name;
+        this.cabins = List.copyOf(cabins);
+        this.holdLevel = holdLevel;
+    }
+
+    // Seating levels with fresh seat state for a new flight; the cabin layouts themselves are shared
+    public List<SeatingLevel> newSeatingLevels() {
+        List<SeatingLevel> levels = new ArrayList<>(cabins.size());
+        for (CabinLayout cabin : cabins) {
+            levels.add(new SeatingLevel(cabin));
+        }
+        return levels;
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public List<CabinLayout> getCabins() {
+        return cabins;
+    }
+
+    public String getHoldLevel() {
+        return holdLevel;
+    }
+}
@@ -0,0 +1,56 @@
+package com.ykhaleq.airlineticketservice.model;
+
+import java.util.List;
+
+public class AirplaneLayout {
+    public static final String DEFAULT_FLIGHT_ID = "DEFAULT"; // Flight served by the unscoped /seats endpoints
+    public static final String HOLD_LEVEL = "First Class";    // Hold level of aircraft that don't name one
+
+    private final String flightId;                  // Flight this seating inventory belongs to
+    private final List<SeatingLevel> seatingLevels; // Seating levels in cabin order
+    private final String holdLevel;                 // Level that holds are placed in
+
+    public AirplaneLayout(String flightId, List<SeatingLevel> seatingLevels) {
+        this(flightId, seatingLevels, HOLD_LEVEL);
+    }
+
+    public AirplaneLayout(String flightId, List<SeatingLevel> seatingLevels, String holdLevel) {
+        this.flightId = flightId;
+        this.seatingLevels = List.copyOf(seatingLevels);
+        this.holdLevel = holdLevel;
+    }
+
+    // Get a specific seating level by name
+    public SeatingLevel getSeatingLevel(String levelName) {
+        for (SeatingLevel level : seatingLevels) {
+            if (level.getLevelName().equalsIgnoreCase(levelName)) {
+                return level;
+            }
+        }
+        throw new IllegalArgumentException("Invalid seating level: " + levelName);
+    }
+
+    // Get the position of a seating level in cabin order, the level number used by journal records and seat ids
+    public int getLevelIndex(String levelName) {
+        for (int i = 0; i < seatingLevels.size(); i++) {
+            if (seatingLevels.get(i).getLevelName().equalsIgnoreCase(levelName)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Invalid seating level: " + levelName);
+    }
+
+    // Get the level that holds are placed in
+    public SeatingLevel getHoldLevel() {
+        return getSeatingLevel(holdLevel);
+    }
+
+    // Getters
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public List<SeatingLevel> getSeatingLevels() {
+        return seatingLevels;
+    }
+}
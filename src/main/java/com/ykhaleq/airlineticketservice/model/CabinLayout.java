@@ -0,0 +1,138 @@
+package com.ykhaleq.airlineticketservice.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Seat geometry of one seating level of an aircraft type: printed row numbers, seat letters, aisles, exit rows
+ * and blocked seats. A cabin layout holds no seat state, so every flight of the same aircraft type shares it.
+ * Seat labels are built on first use and interned, so "12A" is a single string across all cabins and flights.
+ */
+public final class CabinLayout {
+    // Label pool shared by every cabin, keyed by (row << 16 | letter)
+    private static final ConcurrentHashMap<Integer, String> LABELS = new ConcurrentHashMap<>();
+
+    private final String levelName;   // Name of the seating level, e.g. "Business"
+    private final int firstRow;       // Printed number of the first row
+    private final int rows;           // Number of rows
+    private final char[] letters;     // Seat letters of a row, left to right
+    private final BitSet aisles;      // Columns with an aisle to their right
+    private final long aisleMask;     // The first 64 columns of aisles, for row masks
+    private final BitSet exitRows;    // 0-based rows at an emergency exit
+    private final int[] blockedSeats; // Row-major indexes of seats that are never offered
+    private volatile String[] labels; // Seat labels by index, built on first use
+
+    public CabinLayout(String levelName, int firstRow, int rows, String letters, BitSet aisles, BitSet exitRows,
+                       int[] blockedSeats) {
+        if (rows <= 0 || letters.isEmpty()) {
+            throw new IllegalArgumentException("Level " + levelName + " needs at least one row and one seat letter.");
+        }
+        if (letters.chars().distinct().count() != letters.length()) {
+            throw new IllegalArgumentException("Level " + levelName + " repeats a seat letter: " + letters);
+        }
+        this.levelName = levelName;
+        this.firstRow = firstRow;
+        this.rows = rows;
+        this.letters = letters.toCharArray();
+        if (aisles.length() >= this.letters.length) {
+            throw new IllegalArgumentException("Level " + levelName + " has an aisle after its last seat.");
+        }
+        this.aisles = (BitSet) aisles.clone();
+        this.aisleMask = aisles.isEmpty() ? 0 : aisles.toLongArray()[0];
+        this.exitRows = (BitSet) exitRows.clone();
+        this.blockedSeats = blockedSeats.clone();
+        for (int index : this.blockedSeats) {
+            if (index < 0 || index >= rows * this.letters.length) {
+                throw new IllegalArgumentException("Blocked seat " + index + " is outside level " + levelName);
+            }
+        }
+    }
+
+    // Rows numbered from 1 with seats lettered from A, no aisles, exit rows or blocked seats
+    public static CabinLayout of(String levelName, int rows, int seatsPerRow) {
+        char[] letters = new char[seatsPerRow];
+        for (int i = 0; i < seatsPerRow; i++) {
+            letters[i] = (char) ('A' + i);
+        }
+        return new CabinLayout(levelName, 1, rows, new String(letters), new BitSet(), new BitSet(), new int[0]);
+    }
+
+    // Label of the seat at a row-major index, e.g. "12A"
+    public String label(int index) {
+        String[] built = labels;
+        if (built == null) {
+            built = buildLabels();
+            labels = built;
+        }
+        return built[index];
+    }
+
+    private String[] buildLabels() {
+        String[] built = new String[rows * letters.length];
+        for (int index = 0; index < built.length; index++) {
+            int row = firstRow + index / letters.length;
+            char letter = letters[index % letters.length];
+            built[index] = LABELS.computeIfAbsent(row << 16 | letter, key -> row + Character.toString(letter));
+        }
+        return built;
+    }
+
+    /**
+     * Row-major index of a seat label, or -1 if the label is not a seat of this cabin.
+     */
+    public int indexOf(String label) {
+        if (label.length() < 2) {
+            return -1;
+        }
+        char letter = label.charAt(label.length() - 1);
+        int column = new String(letters).indexOf(letter);
+        int row;
+        try {
+            row = Integer.parseInt(label.substring(0, label.length() - 1)) - firstRow;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return column < 0 || row < 0 || row >= rows ? -1 : row * letters.length + column;
+    }
+
+    // Getters
+    public String getLevelName() {
+        return levelName;
+    }
+
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getSeatsPerRow() {
+        return letters.length;
+    }
+
+    public String getSeatLetters() {
+        return new String(letters);
+    }
+
+    // Whether an aisle separates the seat in a 0-based column from the one to its right
+    public boolean isAisleAfter(int column) {
+        return aisles.get(column);
+    }
+
+    // Bit i is set when an aisle follows column i, for the first 64 columns of a row
+    public long getAisleMask() {
+        return aisleMask;
+    }
+
+    // Whether a 0-based row is at an emergency exit
+    public boolean isExitRow(int row) {
+        return exitRows.get(row);
+    }
+
+    public int[] getBlockedSeats() {
+        return Arrays.copyOf(blockedSeats, blockedSeats.length);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ykhaleq.airlineticketservice.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+public class Reservation {
+    private final long reservationId;       // Hold id, or the id issued for a direct reservation
+    private final boolean direct;           // Reserved without a hold
+    private final String confirmationCode;  // Code returned to the customer
+    private final String flightId;          // Flight the seats belong to
+    private final String customerEmail;     // Customer's email
+    private final List<Seat> seats;         // Reserved seats, grouped by level in cabin order
+
+    public Reservation(long reservationId, boolean direct, String confirmationCode, String flightId,
+                       String customerEmail, List<Seat> seats) {
+        this.reservationId = reservationId;
+        this.direct = direct;
+        this.confirmationCode = confirmationCode;
+        this.flightId = flightId;
+        this.customerEmail = customerEmail;
+        this.seats = seats;
+    }
+
+    // Getters
+    @JsonIgnore
+    public long getReservationId() {
+        return reservationId;
+    }
+
+    @JsonIgnore
+    public boolean isDirect() {
+        return direct;
+    }
+
+    public String getConfirmationCode() {
+        return confirmationCode;
+    }
+
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public List<Seat> getSeats() {
+        return seats;
+    }
+}
@@ -1,17 +1,24 @@
 package com.ykhaleq.airlineticketservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class Seat {
-    private final String seatNumber; // Unique identifier for the seat (e.g., "1A")
-    private final String level;      // Seating level (e.g., "First Class")
-    private boolean held;            // Whether the seat is temporarily held
-    private boolean reserved;        // Whether the seat is reserved
+    private final String seatNumber;      // Unique identifier for the seat (e.g., "1A"), shared with the cabin layout
+    private final String level;           // Seating level (e.g., "First Class")
+    private final SeatStateBitmap states; // Packed state of the level this seat belongs to
+    private final int index;              // Position of this seat within the level's bitmap
 
-    // Constructor: Initialize seat with seat number and level
+    // Constructor: Initialize a standalone seat with seat number and level
     public Seat(String seatNumber, String level) {
+        this(seatNumber, level, new SeatStateBitmap(1), 0);
+    }
+
+    // Constructor: Seat backed by a slot in its level's shared bitmap
+    Seat(String seatNumber, String level, SeatStateBitmap states, int index) {
         this.seatNumber = seatNumber;
         this.level = level;
-        this.held = false;           // Default: not held
-        this.reserved = false;       // Default: not reserved
+        this.states = states;
+        this.index = index;
     }
 
     // Getters
@@ -24,27 +31,54 @@ public class Seat {
     }
 
     public boolean isHeld() {
-        return held;
+        return states.isHeld(index);
     }
 
     public boolean isReserved() {
-        return reserved;
+        return states.isReserved(index);
     }
 
-    // Mark the seat as held
-    public void hold() {
-        this.held = true;
+    // Position of the seat within its level, e.g. to encode it compactly on the wire; not part of the JSON form
+    @JsonIgnore
+    public int getIndex() {
+        return index;
+    }
+
+    // Mark the seat as held; returns false if another caller already claimed it
+    public boolean hold() {
+        return states.hold(index);
     }
 
     // Release the hold on the seat
     public void release() {
-        this.held = false;
+        states.release(index);
     }
 
     // Mark the seat as reserved
     public void reserve() {
-        this.held = false;           // Clear any hold
-        this.reserved = true;        // Mark as reserved
+        states.reserve(index); // Clears any hold
+    }
+
+    // Return a reserved seat to inventory; returns false if the seat was not reserved
+    public boolean cancel() {
+        return states.cancel(index);
+    }
+
+    // Seats are views, so two views of the same slot are the same seat
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Seat seat)) {
+            return false;
+        }
+        return states == seat.states && index == seat.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(states) + index;
     }
 
     @Override
@@ -52,8 +86,8 @@ public class Seat {
         return "Seat{" +
                 "seatNumber='" + seatNumber + '\'' +
                 ", level='" + level + '\'' +
-                ", held=" + held +
-                ", reserved=" + reserved +
+                ", held=" + isHeld() +
+                ", reserved=" + isReserved() +
                 '}';
     }
-}
\ No newline at end of file
+}
@@ -4,16 +4,27 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 public class SeatHold {
-    private final int holdId;                // Unique hold identifier
+    private final long holdId;               // Unique hold identifier
+    private final String flightId;           // Flight the seats belong to
     private final List<Seat> heldSeats;     // List of seats held
     private final String customerEmail;     // Customer's email
     private final LocalDateTime expirationTime; // Expiration time for the hold
 
-    public SeatHold(int holdId, List<Seat> heldSeats, String customerEmail, int holdDurationSeconds) {
+    public SeatHold(long holdId, List<Seat> heldSeats, String customerEmail, int holdDurationSeconds) {
+        this(holdId, AirplaneLayout.DEFAULT_FLIGHT_ID, heldSeats, customerEmail, holdDurationSeconds);
+    }
+
+    public SeatHold(long holdId, String flightId, List<Seat> heldSeats, String customerEmail, int holdDurationSeconds) {
+        this(holdId, flightId, heldSeats, customerEmail, LocalDateTime.now().plusSeconds(holdDurationSeconds));
+    }
+
+    // Constructor: Restore a hold with a known expiration time, e.g. when replaying the reservation journal
+    public SeatHold(long holdId, String flightId, List<Seat> heldSeats, String customerEmail, LocalDateTime expirationTime) {
         this.holdId = holdId;
+        this.flightId = flightId;
         this.heldSeats = heldSeats;
         this.customerEmail = customerEmail;
-        this.expirationTime = LocalDateTime.now().plusSeconds(holdDurationSeconds);
+        this.expirationTime = expirationTime;
     }
 
     // Check if the hold has expired
@@ -22,10 +33,14 @@ public class SeatHold {
     }
 
     // Getters
-    public int getHoldId() {
+    public long getHoldId() {
         return holdId;
     }
 
+    public String getFlightId() {
+        return flightId;
+    }
+
     public List<Seat> getHeldSeats() {
         return heldSeats;
     }
@@ -37,4 +52,4 @@ public class SeatHold {
     public LocalDateTime getExpirationTime() {
         return expirationTime;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,402 @@
+package com.ykhaleq.airlineticketservice.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Packed seat state for all seats of a single level.
+ * Seat {@code i} lives in word {@code i >> 5}: its occupied bit is bit {@code i & 31} and its reserved
+ * bit is bit {@code 32 + (i & 31)}, so counting and searching touch one long per 32 seats instead of
+ * one object per seat.
+ *
+ * A seat is claimed by atomically setting its occupied bit; the reserved bit then distinguishes a
+ * reservation from a hold. Both bits of a seat share one word, so every transition (hold, release,
+ * reserve, cancel) is a single compare-and-set and no thread can ever observe a seat that is reserved
+ * but not occupied. Several seats in the same 32-seat block are claimed in a single CAS and no lock
+ * is ever held.
+ *
+ * Available, held and reserved totals are kept in counters adjusted by every successful transition,
+ * so reading them is O(1). The {@code count*} methods recount from the bitsets for consistency checks.
+ * Seats can also be partitioned into fixed-size groups (rows) with a free-seat counter per group.
+ * A version number is bumped on every transition so observers can cheaply tell whether anything changed.
+ *
+ * Blocked seats (e.g. crew rest or inoperative seats) are marked {@code occupied} but neither held nor reserved,
+ * so no claim can ever take them; they are excluded from every counter.
+ */
+public class SeatStateBitmap {
+    private static final int SEATS_PER_WORD = 32;
+    private static final long OCCUPIED_BITS = 0xFFFFFFFFL; // Low half of a word; the high half holds reserved bits
+
+    private final int capacity;              // Number of seats tracked
+    private final AtomicLongArray states;    // Occupied (held or reserved) and reserved bits, 32 seats per word
+    private final AtomicInteger availableCount;
+    private final AtomicInteger heldCount;
+    private final AtomicInteger reservedCount;
+    private final int groupSize;                // Seats per group, e.g. seats per row
+    private final AtomicIntegerArray groupFree; // Available seats in each group
+    private final AtomicLong version;           // Incremented after every successful transition
+    private final long[] blocked;               // Bit i & 63 of word i >> 6 set when the seat is never offered; fixed once the level is built
+    private int blockedCount;
+
+    public SeatStateBitmap(int capacity) {
+        this(capacity, Math.max(capacity, 1));
+    }
+
+    public SeatStateBitmap(int capacity, int groupSize) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        if (groupSize <= 0) {
+            throw new IllegalArgumentException("Group size must be positive: " + groupSize);
+        }
+        this.capacity = capacity;
+        this.states = new AtomicLongArray((capacity + SEATS_PER_WORD - 1) / SEATS_PER_WORD);
+        this.availableCount = new AtomicInteger(capacity);
+        this.heldCount = new AtomicInteger();
+        this.reservedCount = new AtomicInteger();
+        this.groupSize = groupSize;
+        this.version = new AtomicLong();
+        this.blocked = new long[wordCount(capacity)];
+        this.groupFree = new AtomicIntegerArray((capacity + groupSize - 1) / groupSize);
+        for (int group = 0; group < groupFree.length(); group++) {
+            groupFree.set(group, Math.min(groupSize, capacity - group * groupSize));
+        }
+    }
+
+    // Number of 64-seat words needed for the given capacity
+    private static int wordCount(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    private static long occupiedBit(int index) {
+        return 1L << (index & (SEATS_PER_WORD - 1));
+    }
+
+    private static long reservedBit(int index) {
+        return occupiedBit(index) << SEATS_PER_WORD;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isHeld(int index) {
+        checkIndex(index);
+        long word = states.get(index / SEATS_PER_WORD);
+        return (word & reservedBit(index)) == 0 && (word & occupiedBit(index)) != 0 && !isBlocked(index);
+    }
+
+    public boolean isBlocked(int index) {
+        checkIndex(index);
+        return (blocked[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Take an available seat out of inventory for good. Only called while the owning level is being built,
+     * before it is shared with other threads.
+     */
+    public void block(int index) {
+        checkIndex(index);
+        long bit = occupiedBit(index);
+        long previous = states.getAndAccumulate(index / SEATS_PER_WORD, bit, (word, mask) -> word | mask);
+        if ((previous & bit) != 0) {
+            throw new IllegalStateException("Only an available seat can be blocked: " + index);
+        }
+        blocked[index >>> 6] |= 1L << index;
+        blockedCount++;
+        availableCount.decrementAndGet();
+        groupFree.decrementAndGet(index / groupSize);
+    }
+
+    public int getBlockedCount() {
+        return blockedCount;
+    }
+
+    public boolean isReserved(int index) {
+        checkIndex(index);
+        return (states.get(index / SEATS_PER_WORD) & reservedBit(index)) != 0;
+    }
+
+    public boolean isAvailable(int index) {
+        checkIndex(index);
+        return (states.get(index / SEATS_PER_WORD) & occupiedBit(index)) == 0;
+    }
+
+    /**
+     * Atomically claim a single available seat as held.
+     * @return true if this call claimed the seat, false if it was already held or reserved.
+     */
+    public boolean hold(int index) {
+        checkIndex(index);
+        return claimWord(index / SEATS_PER_WORD, occupiedBit(index));
+    }
+
+    /**
+     * Atomically claim every seat in {@code indices} as held, or none of them.
+     * Seats sharing a 32-seat block are claimed with a single compare-and-set; if any block
+     * has already been taken by a concurrent caller, blocks claimed so far are rolled back.
+     * @return true if all seats were claimed.
+     */
+    public boolean holdAll(int[] indices) {
+        int[] sorted = indices.clone();
+        Arrays.sort(sorted);
+        int start = 0;
+        while (start < sorted.length) {
+            int word = checkIndex(sorted[start]) / SEATS_PER_WORD;
+            long mask = 0;
+            int end = start;
+            while (end < sorted.length && checkIndex(sorted[end]) / SEATS_PER_WORD == word) {
+                mask |= occupiedBit(sorted[end]);
+                end++;
+            }
+            if (!claimWord(word, mask)) {
+                releaseAll(Arrays.copyOf(sorted, start));
+                return false;
+            }
+            start = end;
+        }
+        return true;
+    }
+
+    // Release the hold on the seat; reserved and blocked seats are left untouched
+    public void release(int index) {
+        if (isBlocked(index)) {
+            return;
+        }
+        int w = index / SEATS_PER_WORD;
+        long occupiedBit = occupiedBit(index);
+        long current;
+        do {
+            current = states.get(w);
+            if ((current & occupiedBit) == 0 || (current & reservedBit(index)) != 0) {
+                return;
+            }
+        } while (!states.compareAndSet(w, current, current & ~occupiedBit));
+        heldCount.decrementAndGet();
+        availableCount.incrementAndGet();
+        groupFree.incrementAndGet(index / groupSize);
+        version.incrementAndGet();
+    }
+
+    public void releaseAll(int[] indices) {
+        for (int index : indices) {
+            release(index);
+        }
+    }
+
+    // Mark the seat as reserved, converting any hold; blocked seats cannot be reserved
+    public void reserve(int index) {
+        if (isBlocked(index)) {
+            return;
+        }
+        int w = index / SEATS_PER_WORD;
+        long occupiedBit = occupiedBit(index);
+        long reservedBit = reservedBit(index);
+        long current;
+        do {
+            current = states.get(w);
+            if ((current & reservedBit) != 0) {
+                return;
+            }
+        } while (!states.compareAndSet(w, current, current | occupiedBit | reservedBit));
+        reservedCount.incrementAndGet();
+        if ((current & occupiedBit) != 0) {
+            heldCount.decrementAndGet();
+        } else {
+            availableCount.decrementAndGet();
+            groupFree.decrementAndGet(index / groupSize);
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Return a reserved seat to inventory, clearing its reserved and occupied bits in one compare-and-set.
+     * @return true if the seat was reserved and is now available.
+     */
+    public boolean cancel(int index) {
+        checkIndex(index);
+        int w = index / SEATS_PER_WORD;
+        long bits = occupiedBit(index) | reservedBit(index);
+        long current;
+        do {
+            current = states.get(w);
+            if ((current & reservedBit(index)) == 0) {
+                return false;
+            }
+        } while (!states.compareAndSet(w, current, current & ~bits));
+        reservedCount.decrementAndGet();
+        availableCount.incrementAndGet();
+        groupFree.incrementAndGet(index / groupSize);
+        version.incrementAndGet();
+        return true;
+    }
+
+    public void reserveAll(int[] indices) {
+        for (int index : indices) {
+            reserve(index);
+        }
+    }
+
+    public int getHeldCount() {
+        return heldCount.get();
+    }
+
+    public int getReservedCount() {
+        return reservedCount.get();
+    }
+
+    public int getAvailableCount() {
+        return availableCount.get();
+    }
+
+    // Number of transitions so far; unchanged means no seat changed state
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Number of 64-seat words in each bitset copied by copyWords
+    public int getWordCount() {
+        return wordCount(capacity);
+    }
+
+    /**
+     * Copy both bitsets into the given arrays, each at least {@link #getWordCount()} long, with bit
+     * {@code i & 63} of word {@code i >> 6} standing for seat {@code i}. Each seat's two bits are read
+     * together, but words are read one at a time, so a copy taken during transitions may mix before and
+     * after states of different seats.
+     */
+    public void copyWords(long[] occupiedWords, long[] reservedWords) {
+        for (int w = 0; w < getWordCount(); w++) {
+            long low = states.get(2 * w);
+            long high = 2 * w + 1 < states.length() ? states.get(2 * w + 1) : 0;
+            occupiedWords[w] = (low & OCCUPIED_BITS) | (high & OCCUPIED_BITS) << SEATS_PER_WORD;
+            reservedWords[w] = (low >>> SEATS_PER_WORD) | (high >>> SEATS_PER_WORD) << SEATS_PER_WORD;
+        }
+    }
+
+    // Available seats in a group
+    public int getGroupAvailableCount(int group) {
+        return groupFree.get(group);
+    }
+
+    /**
+     * Availability of up to 64 consecutive seats as a bitmask: bit {@code j} is set when seat
+     * {@code fromIndex + j} is available.
+     */
+    public long availableMask(int fromIndex, int length) {
+        if (length < 1 || length > Long.SIZE) {
+            throw new IllegalArgumentException("Mask length must be between 1 and 64: " + length);
+        }
+        checkIndex(fromIndex);
+        checkIndex(fromIndex + length - 1);
+        long free = 0;
+        for (int filled = 0; filled < length; ) {
+            int index = fromIndex + filled;
+            int offset = index & (SEATS_PER_WORD - 1);
+            free |= ((~states.get(index / SEATS_PER_WORD) & OCCUPIED_BITS) >>> offset) << filled;
+            filled += SEATS_PER_WORD - offset;
+        }
+        return length == Long.SIZE ? free : free & ((1L << length) - 1);
+    }
+
+    // Recount reserved seats from the bitset
+    public int countReserved() {
+        return popCount(~OCCUPIED_BITS);
+    }
+
+    // Recount held seats from the bitsets
+    public int countHeld() {
+        return popCount(OCCUPIED_BITS) - popCount(~OCCUPIED_BITS) - blockedCount;
+    }
+
+    // Recount available seats from the bitset
+    public int countAvailable() {
+        return capacity - popCount(OCCUPIED_BITS);
+    }
+
+    /**
+     * Compare the maintained counters against a full recount of the bitsets.
+     * Only meaningful while no transition is in flight on this level.
+     */
+    public boolean isConsistent() {
+        if (getAvailableCount() != countAvailable()
+                || getHeldCount() != countHeld()
+                || getReservedCount() != countReserved()) {
+            return false;
+        }
+        for (int group = 0; group < groupFree.length(); group++) {
+            int free = 0;
+            for (int index = group * groupSize; index < Math.min(capacity, (group + 1) * groupSize); index++) {
+                if (isAvailable(index)) {
+                    free++;
+                }
+            }
+            if (free != groupFree.get(group)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Count the set bits of every word under the given half-word mask
+    private int popCount(long halfMask) {
+        int count = 0;
+        for (int w = 0; w < states.length(); w++) {
+            count += Long.bitCount(states.get(w) & halfMask);
+        }
+        return count;
+    }
+
+    /**
+     * Find the first available seat at or after the given index.
+     * @return the seat index, or -1 if every remaining seat is held or reserved.
+     */
+    public int nextAvailable(int fromIndex) {
+        if (fromIndex < 0) {
+            fromIndex = 0;
+        }
+        if (fromIndex >= capacity) {
+            return -1;
+        }
+        int w = fromIndex / SEATS_PER_WORD;
+        long free = ~states.get(w) & OCCUPIED_BITS & (-1L << (fromIndex & (SEATS_PER_WORD - 1)));
+        while (true) {
+            if (free != 0) {
+                int index = w * SEATS_PER_WORD + Long.numberOfTrailingZeros(free);
+                return index < capacity ? index : -1;
+            }
+            if (++w == states.length()) {
+                return -1;
+            }
+            free = ~states.get(w) & OCCUPIED_BITS;
+        }
+    }
+
+    private boolean claimWord(int word, long mask) {
+        long current;
+        do {
+            current = states.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!states.compareAndSet(word, current, current | mask));
+        int claimed = Long.bitCount(mask);
+        availableCount.addAndGet(-claimed);
+        heldCount.addAndGet(claimed);
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            groupFree.decrementAndGet((word * SEATS_PER_WORD + Long.numberOfTrailingZeros(bits)) / groupSize);
+        }
+        version.incrementAndGet();
+        return true;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= capacity) {
+            throw new IndexOutOfBoundsException("Seat index " + index + " out of range for capacity " + capacity);
+        }
+        return index;
+    }
+}
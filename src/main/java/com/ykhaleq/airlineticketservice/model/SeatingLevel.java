@@ -1,51 +1,211 @@
 package com.ykhaleq.airlineticketservice.model;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SeatingLevel {
-    private final String levelName;  // Name of the level ("First Class", "Business Class")
-    private final int rows;          // Number of rows in this level
-    private final int seatsPerRow;   // Number of seats in each row
-    private final List<Seat> seats;  // List of all seats in this level
-    private int reservedCount;       // Total number of reserved seats
+    private final String levelName;       // Name of the level ("First Class", "Business Class")
+    private final int rows;               // Number of rows in this level
+    private final int seatsPerRow;        // Number of seats in each row
+    private final CabinLayout cabin;      // Seat geometry, shared by every flight of the same aircraft type
+    private final SeatStateBitmap states; // Packed held/reserved state of every seat
+    private final AtomicInteger reservedCount; // Total number of reserved seats
 
+    // Constructor: Rows numbered from 1 with seats lettered from A
     public SeatingLevel(String levelName, int rows, int seatsPerRow) {
-        this.levelName = levelName;
-        this.rows = rows;
-        this.seatsPerRow = seatsPerRow;
-        this.seats = new ArrayList<>();
-        this.reservedCount = 0;      // Initialize reserved count to zero
-        initializeSeats();
-    }
-
-    // Initialize seats
-    private void initializeSeats() {
-        for (int row = 1; row <= rows; row++) {
-            for (int col = 1; col <= seatsPerRow; col++) {
-                // Generate a seat number like "1A", "1B", etc.
-                String seatNumber = row + Character.toString((char) ('A' + col - 1));
-                // Add the seat to the list
-                seats.add(new Seat(seatNumber, levelName));
-            }
+        this(CabinLayout.of(levelName, rows, seatsPerRow));
+    }
+
+    // Constructor: Fresh seat state over a cabin layout, with its blocked seats taken out of inventory.
+    // Seat objects are not allocated up front; getSeat creates lightweight views over the bitmap on demand.
+    public SeatingLevel(CabinLayout cabin) {
+        this.levelName = cabin.getLevelName();
+        this.rows = cabin.getRows();
+        this.seatsPerRow = cabin.getSeatsPerRow();
+        this.cabin = cabin;
+        this.states = new SeatStateBitmap(rows * seatsPerRow, seatsPerRow);
+        this.reservedCount = new AtomicInteger(); // Initialize reserved count to zero
+        for (int index : cabin.getBlockedSeats()) {
+            states.block(index);
         }
     }
 
     // Increment the reserved count
     public void reserveSeat() {
-        this.reservedCount++;
+        this.reservedCount.incrementAndGet();
+    }
+
+    // Decrement the reserved count by the number of cancelled seats, in one step
+    public void cancelSeats(int count) {
+        this.reservedCount.addAndGet(-count);
+    }
+
+    /**
+     * Number of seats that are neither held nor reserved, maintained incrementally on every transition.
+     */
+    public int getAvailableCount() {
+        return states.getAvailableCount();
+    }
+
+    // Number of seats currently held
+    public int getHeldCount() {
+        return states.getHeldCount();
+    }
+
+    // Number of seats that are neither held nor reserved, recounted from the seat state
+    public int countAvailableSeats() {
+        return states.countAvailable();
+    }
+
+    // Check the maintained counters against a full recount of the seat state
+    public boolean hasConsistentCounters() {
+        return states.isConsistent();
+    }
+
+    /**
+     * Index of the first available seat at or after {@code fromIndex}, or -1 if none.
+     */
+    public int nextAvailableSeatIndex(int fromIndex) {
+        return states.nextAvailable(fromIndex);
+    }
+
+    /**
+     * Indexes of up to {@code count} available seats in row-major order, without claiming them.
+     * The result is shorter than {@code count} when the level does not have enough free seats.
+     */
+    public int[] findAvailableSeatIndexes(int count) {
+        // Never size the result beyond the level, whatever the caller asked for
+        int[] indexes = new int[Math.max(0, Math.min(count, states.getCapacity()))];
+        int found = 0;
+        int index = states.nextAvailable(0);
+        while (index >= 0 && found < indexes.length) {
+            indexes[found++] = index;
+            index = states.nextAvailable(index + 1);
+        }
+        return found == indexes.length ? indexes : Arrays.copyOf(indexes, found);
+    }
+
+    /**
+     * Atomically hold all of the given seats, or none of them if any was claimed concurrently.
+     */
+    public boolean holdSeats(int[] indexes) {
+        return states.holdAll(indexes);
+    }
+
+    public List<Seat> getSeats(int[] indexes) {
+        List<Seat> result = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            result.add(getSeat(index));
+        }
+        return result;
+    }
+
+    // Number of available seats in a row (0-based)
+    public int getRowAvailableCount(int row) {
+        return states.getGroupAvailableCount(row);
+    }
+
+    /**
+     * Availability of a row (0-based) as a bitmask, bit {@code j} set when the seat in column {@code j} is free.
+     * Only supported for rows of at most 64 seats.
+     */
+    public long getRowAvailableMask(int row) {
+        return states.availableMask(row * seatsPerRow, seatsPerRow);
+    }
+
+    public Seat getSeat(int index) {
+        Objects.checkIndex(index, states.getCapacity());
+        return new Seat(cabin.label(index), levelName, states, index);
+    }
+
+    // Whether a seat is permanently out of inventory
+    public boolean isBlocked(int index) {
+        return states.isBlocked(index);
+    }
+
+    public int getBlockedCount() {
+        return states.getBlockedCount();
+    }
+
+    // Changes whenever any seat of this level is held, released or reserved
+    public long getStateVersion() {
+        return states.getVersion();
+    }
+
+    public int getStateWordCount() {
+        return states.getWordCount();
+    }
+
+    /**
+     * Copy the packed seat state: bit {@code i & 63} of word {@code i >> 6} is set in {@code occupiedWords}
+     * when seat {@code i} is held or reserved, and in {@code reservedWords} when it is reserved.
+     */
+    public void copySeatState(long[] occupiedWords, long[] reservedWords) {
+        states.copyWords(occupiedWords, reservedWords);
+    }
+
+    // Positions of the given seats of this level within its bitmap
+    public int[] indexesOf(List<Seat> levelSeats) {
+        int[] indexes = new int[levelSeats.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = levelSeats.get(i).getIndex();
+        }
+        return indexes;
+    }
+
+    // Indexes of every reserved seat, in row-major order
+    public int[] getReservedSeatIndexes() {
+        int[] indexes = new int[states.getReservedCount()];
+        int found = 0;
+        for (int index = 0; index < states.getCapacity() && found < indexes.length; index++) {
+            if (states.isReserved(index)) {
+                indexes[found++] = index;
+            }
+        }
+        return found == indexes.length ? indexes : Arrays.copyOf(indexes, found);
     }
 
     // Getters
     public int getReservedCount() {
-        return reservedCount;
+        return reservedCount.get();
     }
 
     public String getLevelName() {
         return levelName;
     }
 
+    public int getRows() {
+        return rows;
+    }
+
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+
+    public int getCapacity() {
+        return states.getCapacity();
+    }
+
+    public CabinLayout getCabin() {
+        return cabin;
+    }
+
+    // Read-only view of every seat in row-major order; seats are created as they are read
     public List<Seat> getSeats() {
-        return seats;
+        return new AbstractList<>() {
+            @Override
+            public Seat get(int index) {
+                return getSeat(index);
+            }
+
+            @Override
+            public int size() {
+                return states.getCapacity();
+            }
+        };
     }
 }
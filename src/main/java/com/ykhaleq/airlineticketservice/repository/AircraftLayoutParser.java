@@ -0,0 +1,207 @@
+package com.ykhaleq.airlineticketservice.repository;
+
+import com.ykhaleq.airlineticketservice.model.AircraftType;
+import com.ykhaleq.airlineticketservice.model.AirplaneLayout;
+import com.ykhaleq.airlineticketservice.model.CabinLayout;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Parser for aircraft layout files. Each file declares one or more aircraft types:
+ * <pre>
+ * # Comment lines start with '#'
+ * aircraft A320 hold "Business"
+ * level "Business" rows 1-3 seats AC-DF
+ * level "Economy" rows 4-30 seats ABC-DEF exit 12,13 blocked 30A,30F
+ * </pre>
+ * Every {@code level} line belongs to the preceding {@code aircraft} line. Row numbers are the printed ones,
+ * seat letters are listed left to right, and {@code -} marks an aisle, which takes no seat.
+ * Exit rows and blocked seats are optional. {@code hold} names the level that holds are placed in, and defaults to
+ * {@value com.ykhaleq.airlineticketservice.model.AirplaneLayout#HOLD_LEVEL}.
+ */
+final class AircraftLayoutParser {
+
+    private AircraftLayoutParser() {
+    }
+
+    /**
+     * Parse every aircraft type in a layout file.
+     * @param source name of the file, used in error messages
+     * @throws IllegalArgumentException if the file is malformed, naming the offending line
+     */
+    static List<AircraftType> parse(String source, Reader reader) throws IOException {
+        List<AircraftType> aircraft = new ArrayList<>();
+        String aircraftName = null;
+        String holdLevel = null;
+        int aircraftLine = 0;
+        List<CabinLayout> cabins = new ArrayList<>();
+
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int errorLine = lineNumber;
+            try {
+                List<String> tokens = tokenize(line);
+                switch (tokens.get(0)) {
+                    case "aircraft" -> {
+                        if (tokens.size() != 2 && (tokens.size() != 4 || !tokens.get(2).equals("hold"))) {
+                            throw new IllegalArgumentException("Expected: aircraft <type> [hold \"<level>\"]");
+                        }
+                        if (aircraftName != null) {
+                            errorLine = aircraftLine; // A level missing from the finished block belongs to its aircraft line
+                            aircraft.add(new AircraftType(aircraftName, cabins, holdLevel));
+                        }
+                        aircraftName = tokens.get(1);
+                        aircraftLine = lineNumber;
+                        holdLevel = tokens.size() == 4 ? tokens.get(3) : AirplaneLayout.HOLD_LEVEL;
+                        cabins = new ArrayList<>();
+                    }
+                    case "level" -> {
+                        if (aircraftName == null) {
+                            throw new IllegalArgumentException("Level declared before any aircraft");
+                        }
+                        cabins.add(parseLevel(tokens));
+                    }
+                    default -> throw new IllegalArgumentException("Unknown directive: " + tokens.get(0));
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(source + ":" + errorLine + ": " + e.getMessage(), e);
+            }
+        }
+        if (aircraftName != null) {
+            try {
+                aircraft.add(new AircraftType(aircraftName, cabins, holdLevel));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(source + ":" + aircraftLine + ": " + e.getMessage(), e);
+            }
+        }
+        return aircraft;
+    }
+
+    // level "<name>" rows <first>-<last> seats <letters> [exit <row>,...] [blocked <seat>,...]
+    private static CabinLayout parseLevel(List<String> tokens) {
+        if (tokens.size() < 2) {
+            throw new IllegalArgumentException("Expected: level \"<name>\" rows <first>-<last> seats <letters>");
+        }
+        String name = tokens.get(1);
+        int firstRow = -1;
+        int lastRow = -1;
+        String letters = null;
+        BitSet aisles = new BitSet();
+        String exits = "";
+        String blocked = "";
+        for (int i = 2; i < tokens.size(); i += 2) {
+            if (i + 1 >= tokens.size()) {
+                throw new IllegalArgumentException("Missing value for " + tokens.get(i));
+            }
+            String value = tokens.get(i + 1);
+            switch (tokens.get(i)) {
+                case "rows" -> {
+                    String[] range = value.split("-", -1);
+                    firstRow = parseNumber(range[0]);
+                    lastRow = range.length == 2 ? parseNumber(range[1]) : firstRow;
+                    if (range.length > 2 || firstRow < 1 || lastRow < firstRow) {
+                        throw new IllegalArgumentException("Invalid row range: " + value);
+                    }
+                }
+                case "seats" -> {
+                    letters = value.replace("-", "");
+                    aisles = aisles(value);
+                }
+                case "exit" -> exits = value;
+                case "blocked" -> blocked = value;
+                default -> throw new IllegalArgumentException("Unknown level attribute: " + tokens.get(i));
+            }
+        }
+        if (firstRow < 0 || letters == null) {
+            throw new IllegalArgumentException("Level " + name + " needs rows and seats");
+        }
+
+        int rows = lastRow - firstRow + 1;
+        BitSet exitRows = new BitSet(rows);
+        for (String exit : list(exits)) {
+            int row = parseNumber(exit) - firstRow;
+            if (row < 0 || row >= rows) {
+                throw new IllegalArgumentException("Exit row " + exit + " is outside level " + name);
+            }
+            exitRows.set(row);
+        }
+        CabinLayout cabin = new CabinLayout(name, firstRow, rows, letters, aisles, exitRows, new int[0]);
+        List<String> blockedLabels = list(blocked);
+        int[] blockedSeats = new int[blockedLabels.size()];
+        for (int i = 0; i < blockedSeats.length; i++) {
+            blockedSeats[i] = cabin.indexOf(blockedLabels.get(i));
+            if (blockedSeats[i] < 0) {
+                throw new IllegalArgumentException("Blocked seat " + blockedLabels.get(i) + " is outside level " + name);
+            }
+        }
+        return new CabinLayout(name, firstRow, rows, letters, aisles, exitRows, blockedSeats);
+    }
+
+    // Columns followed by an aisle, e.g. column 2 for "ABC-DEF"
+    private static BitSet aisles(String seats) {
+        if (seats.startsWith("-") || seats.endsWith("-") || seats.contains("--")) {
+            throw new IllegalArgumentException("Aisles must separate seats: " + seats);
+        }
+        BitSet aisles = new BitSet();
+        int column = 0;
+        for (int i = 0; i < seats.length(); i++) {
+            if (seats.charAt(i) == '-') {
+                aisles.set(column - 1);
+            } else {
+                column++;
+            }
+        }
+        return aisles;
+    }
+
+    // Split on whitespace, keeping double-quoted names together
+    private static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                int end = line.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated quote");
+                }
+                tokens.add(line.substring(i + 1, end));
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+                    end++;
+                }
+                tokens.add(line.substring(i, end));
+                i = end;
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> list(String value) {
+        return value.isEmpty() ? List.of() : List.of(value.split(","));
+    }
+
+    private static int parseNumber(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + value);
+        }
+    }
+}
@@ -1,53 +1,225 @@
 package com.ykhaleq.airlineticketservice.repository;
 
+import com.ykhaleq.airlineticketservice.exception.FlightNotFoundException;
+import com.ykhaleq.airlineticketservice.model.AircraftType;
+import com.ykhaleq.airlineticketservice.model.AirplaneLayout;
 import com.ykhaleq.airlineticketservice.model.SeatingLevel;
 import com.ykhaleq.airlineticketservice.service.PricingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 @Repository
 public class AirplaneLayoutRepository {
-    private final List<SeatingLevel> seatingLevels; // Stores all seating levels
+    public static final String DEFAULT_LAYOUTS = "classpath*:layouts/*.layout";
+    public static final String DEFAULT_AIRCRAFT_TYPE = "STANDARD";
+
+    // Flight id -> layout. Each flight owns its own seat state, so requests for different flights never contend.
+    private final ConcurrentHashMap<String, AirplaneLayout> flights;
+    private final ConcurrentHashMap<String, LevelPriceIndex> priceIndexes; // Flight id -> levels by current price
     private final PricingService pricingService;   // Handles dynamic pricing logic
+    private final Map<String, AircraftType> aircraftTypes; // Aircraft type -> cabin layouts, loaded once at startup
+    private final String defaultAircraftType;      // Type of flights configured without one
+    private final List<Consumer<AirplaneLayout>> flightListeners = new CopyOnWriteArrayList<>(); // Told of new layouts
 
     public AirplaneLayoutRepository(PricingService pricingService) {
-        this.seatingLevels = new ArrayList<>();
+        this(pricingService, new String[0]);
+    }
+
+    public AirplaneLayoutRepository(PricingService pricingService, String[] flights) {
+        this(pricingService, flights, DEFAULT_LAYOUTS, DEFAULT_AIRCRAFT_TYPE);
+    }
+
+    /**
+     * @param flights flight ids to register, each optionally followed by {@code :<aircraft type>}, e.g. {@code UA100:A320}
+     * @param layoutLocations resource pattern of the aircraft layout files
+     */
+    @Autowired
+    public AirplaneLayoutRepository(PricingService pricingService,
+                                    @Value("${seat.flights:}") String[] flights,
+                                    @Value("${seat.aircraft.layouts:" + DEFAULT_LAYOUTS + "}") String layoutLocations,
+                                    @Value("${seat.aircraft.default-type:" + DEFAULT_AIRCRAFT_TYPE + "}") String defaultAircraftType) {
+        this.flights = new ConcurrentHashMap<>();
+        this.priceIndexes = new ConcurrentHashMap<>();
         this.pricingService = pricingService;
-        initializeLayout();
+        this.aircraftTypes = loadAircraftTypes(layoutLocations);
+        this.defaultAircraftType = defaultAircraftType;
+        getAircraftType(defaultAircraftType);
+        addFlight(AirplaneLayout.DEFAULT_FLIGHT_ID);
+        for (String flight : flights) {
+            if (!flight.isBlank()) {
+                String[] idAndType = flight.trim().split(":", 2);
+                addFlight(idAndType[0], idAndType.length == 2 ? idAndType[1] : defaultAircraftType);
+            }
+        }
+    }
+
+    // Parse every layout file, failing startup on a malformed file or a level without pricing
+    private Map<String, AircraftType> loadAircraftTypes(String layoutLocations) {
+        Map<String, AircraftType> types = new HashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(layoutLocations)) {
+                try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+                    for (AircraftType type : AircraftLayoutParser.parse(resource.getDescription(), reader)) {
+                        type.getCabins().forEach(cabin -> pricingService.levelOrdinal(cabin.getLevelName()));
+                        if (types.put(type.getName(), type) != null) {
+                            throw new IllegalArgumentException("Aircraft type declared twice: " + type.getName());
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load aircraft layouts from " + layoutLocations, e);
+        }
+        return Map.copyOf(types);
+    }
+
+    /**
+     * Register a flight with a fresh seating layout of the default aircraft type. Registering an existing flight is a no-op.
+     * @return the flight's layout
+     */
+    public AirplaneLayout addFlight(String flightId) {
+        return addFlight(flightId, defaultAircraftType);
+    }
+
+    /**
+     * Register a flight with a fresh seating layout of the given aircraft type. Registering an existing flight is a no-op.
+     * @return the flight's layout
+     */
+    public AirplaneLayout addFlight(String flightId, String aircraftType) {
+        AircraftType type = getAircraftType(aircraftType);
+        AirplaneLayout layout = flights.get(flightId);
+        if (layout != null) {
+            return layout;
+        }
+        AirplaneLayout created = new AirplaneLayout(flightId, type.newSeatingLevels(), type.getHoldLevel());
+        layout = flights.putIfAbsent(flightId, created);
+        if (layout != null) {
+            return layout;
+        }
+        flightListeners.forEach(listener -> listener.accept(created));
+        return created;
+    }
+
+    // Get a loaded aircraft type by name
+    public AircraftType getAircraftType(String name) {
+        AircraftType type = aircraftTypes.get(name);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown aircraft type: " + name);
+        }
+        return type;
+    }
+
+    // Get the names of all loaded aircraft types
+    public Set<String> getAircraftTypes() {
+        return aircraftTypes.keySet();
     }
 
-    // Initialize the airplane layout
-    private void initializeLayout() {
-        // First Class
-        SeatingLevel firstClass = new SeatingLevel("First Class", 10, 4);
-        seatingLevels.add(firstClass);
+    /**
+     * Register a flight with a custom set of seating levels, replacing any existing layout for that flight.
+     * @return the flight's layout
+     */
+    public AirplaneLayout addFlight(String flightId, List<SeatingLevel> seatingLevels) {
+        AirplaneLayout layout = new AirplaneLayout(flightId, seatingLevels);
+        flights.put(flightId, layout);
+        priceIndexes.remove(flightId);
+        flightListeners.forEach(listener -> listener.accept(layout));
+        return layout;
+    }
 
-        // Business
-        SeatingLevel business = new SeatingLevel("Business", 15, 6);
-        seatingLevels.add(business);
+    /**
+     * Call the listener with the layout of every registered flight, then with each layout registered from now on,
+     * including one that replaces a flight's layout.
+     */
+    public void onFlightRegistered(Consumer<AirplaneLayout> listener) {
+        flightListeners.add(listener);
+        flights.values().forEach(listener);
+    }
 
-        // Premium Economy
-        SeatingLevel premiumEconomy = new SeatingLevel("Premium Economy", 20, 6);
-        seatingLevels.add(premiumEconomy);
+    // Get the layout of a flight
+    public AirplaneLayout getLayout(String flightId) {
+        AirplaneLayout layout = flights.get(flightId);
+        if (layout == null) {
+            throw new FlightNotFoundException("Flight not found: " + flightId);
+        }
+        return layout;
+    }
 
-        // Economy
-        SeatingLevel economy = new SeatingLevel("Economy", 25, 6);
-        seatingLevels.add(economy);
+    // Get the ids of all registered flights
+    public Set<String> getFlightIds() {
+        return flights.keySet();
     }
 
-    // Get all seating levels
+    // Get all seating levels of the default flight
     public List<SeatingLevel> getSeatingLevels() {
-        return seatingLevels;
+        return getSeatingLevels(AirplaneLayout.DEFAULT_FLIGHT_ID);
+    }
+
+    // Get all seating levels of a flight
+    public List<SeatingLevel> getSeatingLevels(String flightId) {
+        return getLayout(flightId).getSeatingLevels();
     }
 
-    // Get a specific seating level by name
+    // Get a specific seating level of the default flight by name
     public SeatingLevel getSeatingLevel(String levelName) {
-        return seatingLevels.stream()
-                .filter(level -> level.getLevelName().equalsIgnoreCase(levelName))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Invalid seating level: " + levelName));
+        return getSeatingLevel(AirplaneLayout.DEFAULT_FLIGHT_ID, levelName);
+    }
+
+    // Get a specific seating level of a flight by name
+    public SeatingLevel getSeatingLevel(String flightId, String levelName) {
+        return getLayout(flightId).getSeatingLevel(levelName);
+    }
+
+    /**
+     * Seating levels of a flight whose current price is within [minPrice, maxPrice], in cabin order.
+     */
+    public List<SeatingLevel> getLevelsInPriceRange(String flightId, double minPrice, double maxPrice) {
+        return priceIndex(flightId).levelsInPriceRange(minPrice, maxPrice);
+    }
+
+    /**
+     * Count newly reserved seats towards a level's dynamic price, moving it to its new price bucket
+     * if a pricing tier threshold was crossed.
+     */
+    public void recordReservations(String flightId, SeatingLevel level, int seats) {
+        for (int i = 0; i < seats; i++) {
+            level.reserveSeat();
+        }
+        priceIndex(flightId).update(level);
+    }
+
+    /**
+     * Remove cancelled seats from a level's dynamic price count, moving it back down a pricing tier
+     * if the count drops below a threshold.
+     */
+    public void recordCancellations(String flightId, SeatingLevel level, int seats) {
+        level.cancelSeats(seats);
+        priceIndex(flightId).update(level);
+    }
+
+    private LevelPriceIndex priceIndex(String flightId) {
+        // Plain read first; computeIfAbsent locks the map bin, which pins a virtual thread's carrier
+        LevelPriceIndex index = priceIndexes.get(flightId);
+        if (index != null) {
+            return index;
+        }
+        AirplaneLayout layout = getLayout(flightId);
+        return priceIndexes.computeIfAbsent(flightId, id -> new LevelPriceIndex(pricingService, layout.getSeatingLevels()));
     }
 
     // Get the price of the next available seat in a given level
@@ -61,13 +233,14 @@ public class AirplaneLayoutRepository {
     public void reserveSeat(String levelName) {
         SeatingLevel level = getSeatingLevel(levelName);
 
-        // Find the first available seat
-        level.getSeats().stream()
-                .filter(seat -> !seat.isReserved() && !seat.isHeld())
-                .findFirst()
-                .ifPresent(seat -> {
-                    seat.reserve();
-                    level.reserveSeat(); // Update reserved count
-                });
+        // Claim the first available seat, skipping any taken concurrently
+        int index = level.nextAvailableSeatIndex(0);
+        while (index >= 0 && !level.getSeat(index).hold()) {
+            index = level.nextAvailableSeatIndex(index + 1);
+        }
+        if (index >= 0) {
+            level.getSeat(index).reserve();
+            recordReservations(AirplaneLayout.DEFAULT_FLIGHT_ID, level, 1); // Update reserved count
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+package com.ykhaleq.airlineticketservice.repository;
+
+import com.ykhaleq.airlineticketservice.model.SeatingLevel;
+import com.ykhaleq.airlineticketservice.service.PricingService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Index of a flight's seating levels by their current price.
+ *
+ * Each price bucket holds a bitmask of level positions in cabin order, so a price-range query is a
+ * sub-map scan over a handful of buckets rather than a price calculation per level. A level moves
+ * between buckets only when its reserved count crosses a pricing tier threshold. A rebuild fills a new
+ * map and publishes it in one volatile write, so queries never scan a half-built index.
+ */
+class LevelPriceIndex {
+    private final PricingService pricingService;
+    private final List<SeatingLevel> levels;            // Levels in cabin order; bit i of a bucket is levels.get(i)
+    private volatile int[] pricingOrdinals;             // Tier table ordinal of each level
+    private final AtomicIntegerArray tiers;             // Tier each level is currently indexed under
+    private volatile ConcurrentSkipListMap<Double, Long> buckets;
+    private final ReentrantLock moveLock;               // Serializes the rare bucket moves
+    private volatile long pricingVersion;               // Pricing rules the buckets were built from
+
+    LevelPriceIndex(PricingService pricingService, List<SeatingLevel> levels) {
+        if (levels.size() > Long.SIZE) {
+            throw new IllegalArgumentException("Price index supports at most 64 seating levels per flight.");
+        }
+        this.pricingService = pricingService;
+        this.levels = List.copyOf(levels);
+        this.tiers = new AtomicIntegerArray(levels.size());
+        this.moveLock = new ReentrantLock();
+        rebuild();
+    }
+
+    /**
+     * Levels whose current price lies within [minPrice, maxPrice], in cabin order.
+     */
+    List<SeatingLevel> levelsInPriceRange(double minPrice, double maxPrice) {
+        if (pricingVersion != pricingService.getVersion()) {
+            rebuild();
+        }
+        if (minPrice > maxPrice) {
+            return List.of();
+        }
+        long mask = 0;
+        for (long levelBits : buckets.subMap(minPrice, true, maxPrice, true).values()) {
+            mask |= levelBits;
+        }
+        List<SeatingLevel> result = new ArrayList<>(Long.bitCount(mask));
+        while (mask != 0) {
+            result.add(levels.get(Long.numberOfTrailingZeros(mask)));
+            mask &= mask - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Re-bucket a level after its reserved count changed. Cheap when the count stays within its tier.
+     */
+    void update(SeatingLevel level) {
+        int position = levels.indexOf(level);
+        if (position < 0) {
+            return;
+        }
+        if (pricingVersion != pricingService.getVersion()) {
+            // Indexed tiers and bucket prices belong to the old rules, so moving one level would corrupt the buckets
+            rebuild();
+            return;
+        }
+        if (tierOf(position) == tiers.get(position)) {
+            return;
+        }
+        moveLock.lock();
+        try {
+            if (pricingVersion != pricingService.getVersion()) {
+                rebuild();
+                return;
+            }
+            // Recompute under the lock from the latest count, so the last update always wins
+            int newTier = tierOf(position);
+            int oldTier = tiers.get(position);
+            if (newTier != oldTier) {
+                long bit = 1L << position;
+                buckets.computeIfPresent(priceOfTier(position, oldTier), (price, bits) -> (bits & ~bit) == 0 ? null : bits & ~bit);
+                buckets.merge(priceOfTier(position, newTier), bit, (a, b) -> a | b);
+                tiers.set(position, newTier);
+            }
+        } finally {
+            moveLock.unlock();
+        }
+    }
+
+    // Rebuild every bucket, e.g. after the pricing rules were reloaded
+    private void rebuild() {
+        moveLock.lock();
+        try {
+            long version = pricingService.getVersion();
+            int[] ordinals = new int[levels.size()];
+            ConcurrentSkipListMap<Double, Long> rebuilt = new ConcurrentSkipListMap<>();
+            for (int position = 0; position < levels.size(); position++) {
+                ordinals[position] = pricingService.levelOrdinal(levels.get(position).getLevelName());
+                int tier = pricingService.tierIndex(ordinals[position], levels.get(position).getReservedCount());
+                tiers.set(position, tier);
+                rebuilt.merge(pricingService.tierPrice(ordinals[position], tier), 1L << position, (a, b) -> a | b);
+            }
+            pricingOrdinals = ordinals;
+            buckets = rebuilt;
+            pricingVersion = version;
+        } finally {
+            moveLock.unlock();
+        }
+    }
+
+    private int tierOf(int position) {
+        return pricingService.tierIndex(pricingOrdinals[position], levels.get(position).getReservedCount());
+    }
+
+    private double priceOfTier(int position, int tier) {
+        return pricingService.tierPrice(pricingOrdinals[position], tier);
+    }
+}
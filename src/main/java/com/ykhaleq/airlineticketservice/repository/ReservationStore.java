@@ -0,0 +1,159 @@
+package com.ykhaleq.airlineticketservice.repository;
+
+import com.ykhaleq.airlineticketservice.model.Reservation;
+import com.ykhaleq.airlineticketservice.model.Seat;
+import com.ykhaleq.airlineticketservice.model.SeatingLevel;
+import com.ykhaleq.airlineticketservice.service.IdGenerator;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * In-memory record of committed reservations, indexed by confirmation code and by customer email.
+ * Entries keep only the reservation id and packed seat positions; confirmation codes and seat views
+ * are rebuilt on lookup, so each booking costs a few dozen bytes plus one int per seat.
+ */
+@Repository
+public class ReservationStore {
+    public static final String HOLD_CODE_PREFIX = "CONFIRM-";
+    public static final String DIRECT_CODE_PREFIX = "CONFIRM-DIRECT-";
+
+    // A packed seat is (level position << LEVEL_SHIFT) | seat index within the level
+    private static final int LEVEL_SHIFT = 24;
+    private static final int SEAT_MASK = (1 << LEVEL_SHIFT) - 1;
+
+    private final AirplaneLayoutRepository layoutRepository;
+    private final ConcurrentHashMap<Long, Entry> reservations;   // Reservation id -> reservation
+    // Customer email -> reservation ids. Ids grow with time, so sorted order is oldest first, and a high-volume
+    // customer such as an agency adds or removes one in O(log n) rather than copying all of its ids.
+    private final ConcurrentHashMap<String, NavigableSet<Long>> idsByCustomer;
+
+    public ReservationStore(AirplaneLayoutRepository layoutRepository) {
+        this.layoutRepository = layoutRepository;
+        this.reservations = new ConcurrentHashMap<>();
+        this.idsByCustomer = new ConcurrentHashMap<>();
+    }
+
+    private record Entry(long id, boolean direct, String flightId, String customerEmail, int[] seats) {
+    }
+
+    /**
+     * Confirmation code of a reservation. Hold ids and direct reservation ids come from one generator,
+     * so the id alone identifies the reservation.
+     */
+    public static String confirmationCode(long reservationId, boolean direct) {
+        return (direct ? DIRECT_CODE_PREFIX : HOLD_CODE_PREFIX) + IdGenerator.format(reservationId);
+    }
+
+    /**
+     * Record a committed reservation. Recording an id that is already stored is a no-op,
+     * so journal replay can overlap the snapshot it follows.
+     *
+     * @param seatsByLevel reserved seat indexes, keyed by level in cabin order
+     * @return true if the reservation was added
+     */
+    public boolean add(long reservationId, boolean direct, String flightId, String customerEmail,
+                       Map<SeatingLevel, int[]> seatsByLevel) {
+        List<SeatingLevel> levels = layoutRepository.getSeatingLevels(flightId);
+        int[] seats = new int[seatsByLevel.values().stream().mapToInt(indexes -> indexes.length).sum()];
+        int position = 0;
+        for (Map.Entry<SeatingLevel, int[]> levelSeats : seatsByLevel.entrySet()) {
+            int level = levels.indexOf(levelSeats.getKey());
+            for (int index : levelSeats.getValue()) {
+                seats[position++] = level << LEVEL_SHIFT | index;
+            }
+        }
+
+        // Share the layout's flight id so entries do not each hold a copy of it
+        String storedFlightId = layoutRepository.getLayout(flightId).getFlightId();
+        Entry entry = new Entry(reservationId, direct, storedFlightId, customerEmail, seats);
+        if (reservations.putIfAbsent(reservationId, entry) != null) {
+            return false;
+        }
+        // Mutate a customer's set only inside compute, so a concurrent remove cannot drop the set being added to
+        idsByCustomer.compute(customerEmail, (email, ids) -> {
+            NavigableSet<Long> customerIds = ids != null ? ids : new ConcurrentSkipListSet<>();
+            customerIds.add(reservationId);
+            return customerIds;
+        });
+        return true;
+    }
+
+    /**
+     * Remove a reservation, e.g. when it is cancelled. Only one concurrent caller removes a given reservation.
+     * @return true if the reservation was stored and this call removed it
+     */
+    public boolean remove(long reservationId) {
+        Entry entry = reservations.remove(reservationId);
+        if (entry == null) {
+            return false;
+        }
+        idsByCustomer.computeIfPresent(entry.customerEmail(), (email, ids) -> {
+            ids.remove(reservationId);
+            return ids.isEmpty() ? null : ids; // Drop the customer once none are left
+        });
+        return true;
+    }
+
+    /**
+     * Look up a reservation by the confirmation code returned when it was made.
+     */
+    public Optional<Reservation> findByConfirmationCode(String confirmationCode) {
+        boolean direct = confirmationCode.startsWith(DIRECT_CODE_PREFIX);
+        String prefix = direct ? DIRECT_CODE_PREFIX : HOLD_CODE_PREFIX;
+        if (!confirmationCode.startsWith(prefix)) {
+            return Optional.empty();
+        }
+        long id = IdGenerator.parse(confirmationCode.substring(prefix.length()));
+        Entry entry = id < 0 ? null : reservations.get(id);
+        if (entry == null || entry.direct() != direct) {
+            return Optional.empty();
+        }
+        return Optional.of(toReservation(entry));
+    }
+
+    /**
+     * All reservations made by a customer, oldest first.
+     */
+    public List<Reservation> findByCustomerEmail(String customerEmail) {
+        NavigableSet<Long> ids = idsByCustomer.get(customerEmail);
+        if (ids == null) {
+            return List.of();
+        }
+        List<Reservation> result = new ArrayList<>();
+        for (long id : ids) {
+            Entry entry = reservations.get(id);
+            if (entry != null) {
+                result.add(toReservation(entry));
+            }
+        }
+        return result;
+    }
+
+    // Visit every stored reservation, e.g. to snapshot them
+    public void forEach(Consumer<Reservation> action) {
+        reservations.values().forEach(entry -> action.accept(toReservation(entry)));
+    }
+
+    // Number of stored reservations
+    public int size() {
+        return reservations.size();
+    }
+
+    private Reservation toReservation(Entry entry) {
+        List<SeatingLevel> levels = layoutRepository.getSeatingLevels(entry.flightId());
+        List<Seat> seats = new ArrayList<>(entry.seats().length);
+        for (int seat : entry.seats()) {
+            seats.add(levels.get(seat >>> LEVEL_SHIFT).getSeat(seat & SEAT_MASK));
+        }
+        return new Reservation(entry.id(), entry.direct(), confirmationCode(entry.id(), entry.direct()),
+                entry.flightId(), entry.customerEmail(), seats);
+    }
+}
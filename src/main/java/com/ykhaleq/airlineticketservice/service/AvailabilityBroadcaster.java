@@ -0,0 +1,219 @@
+package com.ykhaleq.airlineticketservice.service;
+
+import com.ykhaleq.airlineticketservice.dto.AvailabilityUpdate;
+import com.ykhaleq.airlineticketservice.model.SeatingLevel;
+import com.ykhaleq.airlineticketservice.repository.AirplaneLayoutRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes seat availability to server-sent event subscribers instead of having them poll.
+ *
+ * Seat transitions are not published one by one. Every {@code push-interval-millis} the broadcaster checks
+ * each subscribed flight's levels for a new state version, diffs the packed seat state against the copy taken
+ * on the previous pass, and sends one coalesced update per flight. Levels that did not change cost a single
+ * volatile read per pass, and flights nobody subscribes to are not looked at.
+ *
+ * Sending blocks on each subscriber's connection, so passes run on the broadcaster's own thread rather than
+ * the shared scheduling pool; a slow subscriber delays other subscribers, never hold expiry or journal flushes.
+ */
+@Service
+public class AvailabilityBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityBroadcaster.class);
+
+    private final AirplaneLayoutRepository layoutRepository;
+    private final long emitterTimeoutMillis;
+    private final long pushIntervalMillis;
+    private final ConcurrentHashMap<String, FlightChannel> channels = new ConcurrentHashMap<>();
+    private ScheduledExecutorService publisher;
+
+    public AvailabilityBroadcaster(AirplaneLayoutRepository layoutRepository, long emitterTimeoutMillis) {
+        this(layoutRepository, emitterTimeoutMillis, 250);
+    }
+
+    @Autowired
+    public AvailabilityBroadcaster(AirplaneLayoutRepository layoutRepository,
+                                   @Value("${seat.availability.stream-timeout-millis:1800000}") long emitterTimeoutMillis,
+                                   @Value("${seat.availability.push-interval-millis:250}") long pushIntervalMillis) {
+        this.layoutRepository = layoutRepository;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.pushIntervalMillis = pushIntervalMillis;
+    }
+
+    /**
+     * Start publishing changes every {@code push-interval-millis} on a dedicated thread.
+     */
+    @PostConstruct
+    public void start() {
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "availability-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleWithFixedDelay(this::publishPass, pushIntervalMillis, pushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (publisher != null) {
+            publisher.shutdownNow();
+        }
+    }
+
+    // A failed pass must not cancel the ones after it
+    private void publishPass() {
+        try {
+            publishChanges();
+        } catch (RuntimeException e) {
+            log.warn("Availability publishing pass failed", e);
+        }
+    }
+
+    /**
+     * Subscribe to a flight's availability. The first event ("snapshot") carries every level;
+     * later events ("delta") carry only changed levels and seats.
+     */
+    public SseEmitter subscribe(String flightId) {
+        List<SeatingLevel> levels = layoutRepository.getSeatingLevels(flightId); // Fails for unknown flights
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        FlightChannel channel = channels.computeIfAbsent(flightId, id -> new FlightChannel(id, levels));
+        emitter.onCompletion(() -> channel.emitters.remove(emitter));
+        emitter.onTimeout(() -> channel.emitters.remove(emitter));
+        emitter.onError(error -> channel.emitters.remove(emitter));
+
+        List<AvailabilityUpdate.LevelUpdate> snapshot = new ArrayList<>(levels.size());
+        for (SeatingLevel level : levels) {
+            snapshot.add(new AvailabilityUpdate.LevelUpdate(level.getLevelName(), level.getAvailableCount(), List.of()));
+        }
+        try {
+            emitter.send(SseEmitter.event().name("snapshot").data(new AvailabilityUpdate(flightId, snapshot)));
+            channel.emitters.add(emitter);
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /**
+     * Send the changes since the previous pass to every subscriber.
+     */
+    public void publishChanges() {
+        collectChanges().forEach((channel, update) -> {
+            for (SseEmitter emitter : channel.emitters) {
+                try {
+                    emitter.send(SseEmitter.event().name("delta").data(update));
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping availability subscriber of flight {}: {}", channel.flightId, e.getMessage());
+                    channel.emitters.remove(emitter);
+                }
+            }
+        });
+    }
+
+    /**
+     * Changes since the previous pass for every flight that has subscribers.
+     */
+    Map<FlightChannel, AvailabilityUpdate> collectChanges() {
+        Map<FlightChannel, AvailabilityUpdate> updates = new LinkedHashMap<>();
+        for (FlightChannel channel : channels.values()) {
+            if (channel.emitters.isEmpty()) {
+                continue;
+            }
+            AvailabilityUpdate update = channel.collectChanges();
+            if (update != null) {
+                updates.put(channel, update);
+            }
+        }
+        return updates;
+    }
+
+    // Number of open subscriptions to a flight
+    public int getSubscriberCount(String flightId) {
+        FlightChannel channel = channels.get(flightId);
+        return channel == null ? 0 : channel.emitters.size();
+    }
+
+    // Subscribers of one flight and the seat state they were last sent
+    static final class FlightChannel {
+        private final String flightId;
+        private final List<SeatingLevel> levels;
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private final long[] versions;
+        private final long[][] occupied;
+        private final long[][] reserved;
+
+        FlightChannel(String flightId, List<SeatingLevel> levels) {
+            this.flightId = flightId;
+            this.levels = levels;
+            this.versions = new long[levels.size()];
+            this.occupied = new long[levels.size()][];
+            this.reserved = new long[levels.size()][];
+            for (int i = 0; i < levels.size(); i++) {
+                SeatingLevel level = levels.get(i);
+                occupied[i] = new long[level.getStateWordCount()];
+                reserved[i] = new long[level.getStateWordCount()];
+                versions[i] = level.getStateVersion();
+                level.copySeatState(occupied[i], reserved[i]);
+            }
+        }
+
+        // Diff every level whose version moved; null when nothing changed. Only called from the publishing thread
+        AvailabilityUpdate collectChanges() {
+            List<AvailabilityUpdate.LevelUpdate> changedLevels = new ArrayList<>();
+            for (int i = 0; i < levels.size(); i++) {
+                SeatingLevel level = levels.get(i);
+                long version = level.getStateVersion();
+                if (version == versions[i]) {
+                    continue;
+                }
+                versions[i] = version;
+
+                long[] currentOccupied = new long[occupied[i].length];
+                long[] currentReserved = new long[reserved[i].length];
+                level.copySeatState(currentOccupied, currentReserved);
+                List<AvailabilityUpdate.SeatChange> changedSeats = new ArrayList<>();
+                for (int w = 0; w < currentOccupied.length; w++) {
+                    long changed = (currentOccupied[w] ^ occupied[i][w]) | (currentReserved[w] ^ reserved[i][w]);
+                    for (long bits = changed; bits != 0; bits &= bits - 1) {
+                        int bit = Long.numberOfTrailingZeros(bits);
+                        changedSeats.add(new AvailabilityUpdate.SeatChange(
+                                level.getSeat((w << 6) + bit).getSeatNumber(),
+                                stateOf(currentOccupied[w], currentReserved[w], 1L << bit)));
+                    }
+                }
+                occupied[i] = currentOccupied;
+                reserved[i] = currentReserved;
+                if (!changedSeats.isEmpty()) {
+                    changedLevels.add(new AvailabilityUpdate.LevelUpdate(
+                            level.getLevelName(), level.getAvailableCount(), changedSeats));
+                }
+            }
+            return changedLevels.isEmpty() ? null : new AvailabilityUpdate(flightId, changedLevels);
+        }
+
+        private static AvailabilityUpdate.SeatState stateOf(long occupiedWord, long reservedWord, long bit) {
+            if ((reservedWord & bit) != 0) {
+                return AvailabilityUpdate.SeatState.RESERVED;
+            }
+            return (occupiedWord & bit) != 0 ? AvailabilityUpdate.SeatState.HELD : AvailabilityUpdate.SeatState.AVAILABLE;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.ykhaleq.airlineticketservice.service;
+
+import com.ykhaleq.airlineticketservice.model.SeatingLevel;
+
+/**
+ * Chooses which seats of a level to offer a party, keeping the party together where possible.
+ *
+ * A party that fits in one row gets the front-most contiguous block of free seats in a single row,
+ * never split by an aisle.
+ * Otherwise the party is spread over the smallest run of adjacent rows with enough free seats.
+ * Rows are skipped using the level's per-row free counters, and a row's contiguous block is found
+ * with bit operations on its free-seat mask, so no individual seat is inspected during the search.
+ */
+final class BestSeatAllocator {
+
+    private BestSeatAllocator() {
+    }
+
+    /**
+     * Indexes of the best {@code count} available seats, without claiming them.
+     * The result is shorter than {@code count} when the level does not have enough free seats.
+     */
+    static int[] findBestSeats(SeatingLevel level, int count) {
+        if (count <= 0) {
+            return new int[0];
+        }
+        if (level.getAvailableCount() < count) {
+            return level.findAvailableSeatIndexes(count);
+        }
+        if (count <= level.getSeatsPerRow() && level.getSeatsPerRow() <= Long.SIZE) {
+            int[] block = findContiguousBlock(level, count);
+            if (block != null) {
+                return block;
+            }
+        }
+        return findAdjacentRows(level, count);
+    }
+
+    // Front-most row holding `count` free seats side by side, with no aisle between them
+    private static int[] findContiguousBlock(SeatingLevel level, int count) {
+        // Bit j is set when seat j and seat j+1 of a row sit next to each other
+        long adjacent = ~level.getCabin().getAisleMask();
+        for (int row = 0; row < level.getRows(); row++) {
+            if (level.getRowAvailableCount(row) < count) {
+                continue;
+            }
+            // Bit j first marks a free pair j, j+1 on the same side of the aisles; after the loop
+            // it survives only if seats j .. j+count-1 are all free and adjacent
+            long runs = level.getRowAvailableMask(row);
+            if (count > 1) {
+                runs &= runs >>> 1 & adjacent;
+            }
+            for (int shift = 2; shift < count && runs != 0; shift++) {
+                runs &= runs >>> 1;
+            }
+            if (runs != 0) {
+                int first = row * level.getSeatsPerRow() + Long.numberOfTrailingZeros(runs);
+                int[] seats = new int[count];
+                for (int i = 0; i < count; i++) {
+                    seats[i] = first + i;
+                }
+                return seats;
+            }
+        }
+        return null;
+    }
+
+    // Free seats from the shortest, front-most window of adjacent rows that can seat the whole party
+    private static int[] findAdjacentRows(SeatingLevel level, int count) {
+        int rows = level.getRows();
+        int bestStart = -1;
+        int bestLength = Integer.MAX_VALUE;
+        int windowFree = 0;
+        int start = 0;
+        for (int end = 0; end < rows; end++) {
+            windowFree += level.getRowAvailableCount(end);
+            // Shrink from the front while the window still seats everyone
+            while (windowFree - level.getRowAvailableCount(start) >= count) {
+                windowFree -= level.getRowAvailableCount(start);
+                start++;
+            }
+            if (windowFree >= count && end - start + 1 < bestLength) {
+                bestStart = start;
+                bestLength = end - start + 1;
+            }
+        }
+        if (bestStart < 0) {
+            return level.findAvailableSeatIndexes(count);
+        }
+
+        int[] seats = new int[count];
+        int found = 0;
+        int index = level.nextAvailableSeatIndex(bestStart * level.getSeatsPerRow());
+        while (index >= 0 && found < count) {
+            seats[found++] = index;
+            index = level.nextAvailableSeatIndex(index + 1);
+        }
+        return found == count ? seats : level.findAvailableSeatIndexes(count);
+    }
+}
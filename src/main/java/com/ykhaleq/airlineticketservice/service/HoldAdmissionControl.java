@@ -0,0 +1,141 @@
+package com.ykhaleq.airlineticketservice.service;
+
+import com.ykhaleq.airlineticketservice.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control for seat holds, checked before any seat is searched so abusive callers are shed cheaply.
+ *
+ * Each customer has a token bucket refilled at {@code rate-limit.per-second} holding up to {@code rate-limit.burst}
+ * tokens. A bucket is kept as the single time at which it will be full again, so taking a token is one CAS.
+ * Each customer may also keep at most {@code max-active-per-customer} unexpired holds per flight; a slot is taken when
+ * a hold is placed and returned when it is reserved, released or expires. Both lookups are one hash probe.
+ */
+@Component
+public class HoldAdmissionControl {
+
+    private final long tokenIntervalNanos;   // Time to refill one token; 0 disables rate limiting
+    private final long burstNanos;           // Time to refill a whole bucket
+    private final int maxActiveHolds;        // Per customer and flight; 0 disables the quota
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();      // Customer -> time the bucket is full
+    private final ConcurrentHashMap<HoldOwner, Integer> activeHolds = new ConcurrentHashMap<>(); // Customer and flight -> holds
+
+    @Autowired
+    public HoldAdmissionControl(@Value("${seat.hold.rate-limit.per-second:0}") double holdsPerSecond,
+                                @Value("${seat.hold.rate-limit.burst:1}") int burst,
+                                @Value("${seat.hold.max-active-per-customer:0}") int maxActiveHolds) {
+        this(holdsPerSecond, burst, maxActiveHolds, System::nanoTime);
+    }
+
+    HoldAdmissionControl(double holdsPerSecond, int burst, int maxActiveHolds, LongSupplier nanoClock) {
+        if (holdsPerSecond < 0 || burst < 1 || maxActiveHolds < 0) {
+            throw new IllegalArgumentException("Hold rate limit and quota must not be negative, and burst must be at least 1.");
+        }
+        this.tokenIntervalNanos = holdsPerSecond == 0 ? 0 : (long) (TimeUnit.SECONDS.toNanos(1) / holdsPerSecond);
+        this.burstNanos = tokenIntervalNanos * burst;
+        this.maxActiveHolds = maxActiveHolds;
+        this.nanoClock = nanoClock;
+    }
+
+    // Admission control that admits every hold
+    public static HoldAdmissionControl unlimited() {
+        return new HoldAdmissionControl(0, 1, 0, System::nanoTime);
+    }
+
+    private record HoldOwner(String flightId, String customerEmail) {
+    }
+
+    /**
+     * Take a token from the customer's bucket.
+     * @throws TooManyRequestsException if the bucket is empty, with the time until the next token
+     */
+    public void acquireToken(String customerEmail) {
+        if (tokenIntervalNanos == 0) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        AtomicLong fullAt = buckets.computeIfAbsent(customerEmail, email -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            // Spending a token pushes the time the bucket is full again one interval further out
+            long next = Math.max(current, now) + tokenIntervalNanos;
+            if (next - now > burstNanos) {
+                long waitNanos = next - now - burstNanos;
+                throw new TooManyRequestsException("Too many hold requests, please retry later.",
+                        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Take one of the customer's active-hold slots on a flight.
+     * @throws TooManyRequestsException if the customer already holds the maximum on that flight
+     */
+    public void acquireHoldSlot(String flightId, String customerEmail) {
+        if (maxActiveHolds == 0) {
+            return;
+        }
+        boolean[] admitted = new boolean[1];
+        activeHolds.compute(new HoldOwner(flightId, customerEmail), (owner, count) -> {
+            int held = count == null ? 0 : count;
+            if (held >= maxActiveHolds) {
+                return count;
+            }
+            admitted[0] = true;
+            return held + 1;
+        });
+        if (!admitted[0]) {
+            throw new TooManyRequestsException("Too many active holds on this flight; reserve or release one first.", 0);
+        }
+    }
+
+    /**
+     * Record a hold that is active regardless of the quota, e.g. one restored from the journal.
+     */
+    public void holdRestored(String flightId, String customerEmail) {
+        if (maxActiveHolds != 0) {
+            activeHolds.merge(new HoldOwner(flightId, customerEmail), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Return a hold slot once the hold was reserved, released or expired, or never got its seats.
+     */
+    public void holdEnded(String flightId, String customerEmail) {
+        if (maxActiveHolds != 0) {
+            activeHolds.computeIfPresent(new HoldOwner(flightId, customerEmail), (owner, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    // Number of active holds counted for a customer on a flight
+    int getActiveHolds(String flightId, String customerEmail) {
+        return activeHolds.getOrDefault(new HoldOwner(flightId, customerEmail), 0);
+    }
+
+    // Number of customers with a partly used token bucket
+    int getBucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Drop buckets that have refilled completely; a new bucket starts full, so forgetting them changes nothing.
+     * A token taken from a bucket while it is being dropped is not counted, which at most grants one extra hold.
+     */
+    @Scheduled(fixedDelayString = "${seat.hold.rate-limit.eviction-millis:60000}")
+    public void evictFullBuckets() {
+        long now = nanoClock.getAsLong();
+        buckets.entrySet().removeIf(entry -> entry.getValue().get() - now <= 0);
+    }
+}
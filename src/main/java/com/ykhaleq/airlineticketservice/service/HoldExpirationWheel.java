@@ -0,0 +1,130 @@
+package com.ykhaleq.airlineticketservice.service;
+
+import com.ykhaleq.airlineticketservice.model.SeatHold;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hashed timer wheel that tracks when seat holds expire.
+ *
+ * Time is divided into ticks of {@code tickMillis}; a hold expiring at tick {@code t} is placed in
+ * bucket {@code t % wheelSize}. Scheduling is an O(1) append, and each advance only visits the buckets
+ * for the ticks that have elapsed, firing the entries that are due and leaving later rounds in place.
+ */
+public class HoldExpirationWheel {
+    private final long tickMillis;                      // Duration of one tick
+    private final long startMillis;                     // Wall-clock time of tick 0
+    private final int mask;                             // wheelSize - 1, wheel size is a power of two
+    private final Bucket[] buckets;
+    private final ReentrantLock advanceLock;            // Only one thread advances the wheel at a time
+    private volatile long currentTick;                  // Last tick being or already processed
+
+    public HoldExpirationWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive: " + tickMillis);
+        }
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.advanceLock = new ReentrantLock();
+        this.currentTick = 0;
+    }
+
+    /**
+     * Schedule a hold to fire once its expiration time has passed.
+     */
+    public void schedule(SeatHold hold) {
+        long deadlineMillis = hold.getExpirationTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        // Round up so a hold never fires early
+        Entry entry = new Entry(hold, ceilDiv(deadlineMillis - startMillis, tickMillis));
+        while (true) {
+            // Never land in a tick that has already been processed
+            long slotTick = Math.max(entry.deadlineTick, currentTick + 1);
+            ConcurrentLinkedQueue<Entry> bucket = buckets[(int) (slotTick & mask)].entries;
+            bucket.add(entry);
+            // An advance that claimed the slot's tick meanwhile may have drained it before the entry arrived, leaving
+            // it for the next round. If the entry is still there, take it back and retry after that advance
+            if (slotTick > currentTick || !bucket.remove(entry)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Advance the wheel to {@code nowMillis} and remove every hold whose deadline has passed.
+     * If another thread is already advancing, this call returns immediately with no holds.
+     *
+     * @return the holds that are due, in no particular order.
+     */
+    public List<SeatHold> advance(long nowMillis) {
+        List<SeatHold> due = new ArrayList<>();
+        if (!advanceLock.tryLock()) {
+            return due;
+        }
+        try {
+            long nowTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+            long previousTick = currentTick;
+            if (nowTick <= previousTick) {
+                return due;
+            }
+            // Claim the ticks before draining them, so a concurrent schedule into one of them can tell and move on
+            currentTick = nowTick;
+            // After a long pause there is no point visiting a bucket more than once
+            long firstTick = Math.max(previousTick + 1, nowTick - mask);
+            for (long tick = firstTick; tick <= nowTick; tick++) {
+                Iterator<Entry> entries = buckets[(int) (tick & mask)].entries.iterator();
+                while (entries.hasNext()) {
+                    Entry entry = entries.next();
+                    if (entry.deadlineTick <= nowTick) {
+                        entries.remove();
+                        due.add(entry.hold);
+                    }
+                }
+            }
+            return due;
+        } finally {
+            advanceLock.unlock();
+        }
+    }
+
+    // Number of holds still waiting in the wheel, including ones already committed or released
+    public int size() {
+        int size = 0;
+        for (Bucket bucket : buckets) {
+            size += bucket.entries.size();
+        }
+        return size;
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    // Holds one slot's queue, since an array of a generic queue type can only be created unchecked
+    private static final class Bucket {
+        private final ConcurrentLinkedQueue<Entry> entries = new ConcurrentLinkedQueue<>();
+    }
+
+    // Compared by identity, so taking an entry back never removes another scheduling of the same hold
+    private static final class Entry {
+        private final SeatHold hold;
+        private final long deadlineTick;
+
+        Entry(SeatHold hold, long deadlineTick) {
+            this.hold = hold;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.ykhaleq.airlineticketservice.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Unique, time-ordered identifiers for holds and confirmations, generated without coordination between instances.
+ *
+ * Snowflake-style layout, from the most significant bit: 31 bits of seconds since 2024-01-01T00:00Z, 8 bits of
+ * node id and a 14-bit per-second sequence. IDs fit in 53 bits so they survive JSON clients that parse numbers
+ * as doubles. Each node can issue 16384 IDs per second; beyond that the sequence carries into the next second,
+ * borrowing time rather than blocking, and the clock catches up once the burst is over.
+ */
+@Component
+public class IdGenerator {
+
+    static final long EPOCH_SECONDS = 1_704_067_200L; // 2024-01-01T00:00:00Z
+    static final int NODE_BITS = 8;
+    static final int SEQUENCE_BITS = 14;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int CODE_LENGTH = 11; // Base-36 digits of the largest 53-bit id
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private final long nodeId;
+    private final LongSupplier clockSeconds;
+    // Last issued (seconds << SEQUENCE_BITS | sequence); only ever moves forward
+    private final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+    @Autowired
+    public IdGenerator(@Value("${seat.node-id:0}") int nodeId) {
+        this(nodeId, () -> System.currentTimeMillis() / 1000);
+    }
+
+    IdGenerator(int nodeId, LongSupplier clockSeconds) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clockSeconds = clockSeconds;
+    }
+
+    /**
+     * Next identifier; strictly increasing on this node.
+     */
+    public long nextId() {
+        long now = (clockSeconds.getAsLong() - EPOCH_SECONDS) << SEQUENCE_BITS;
+        long current;
+        long next;
+        do {
+            current = lastTimeAndSequence.get();
+            // A new second restarts the sequence; otherwise count up, carrying into the next second when full
+            next = Math.max(now, current + 1);
+        } while (!lastTimeAndSequence.compareAndSet(current, next));
+        return compose(next);
+    }
+
+    /**
+     * Never issue {@code id} or anything before it again, e.g. after replaying IDs from a journal
+     * that may be ahead of the clock.
+     */
+    public void observe(long id) {
+        if (((id >>> SEQUENCE_BITS) & MAX_NODE_ID) == nodeId) {
+            long timeAndSequence = (id >>> (NODE_BITS + SEQUENCE_BITS)) << SEQUENCE_BITS | (id & SEQUENCE_MASK);
+            lastTimeAndSequence.accumulateAndGet(timeAndSequence, Math::max);
+        }
+    }
+
+    private long compose(long timeAndSequence) {
+        return (timeAndSequence >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                | nodeId << SEQUENCE_BITS
+                | (timeAndSequence & SEQUENCE_MASK);
+    }
+
+    /**
+     * Fixed-width base-36 form of an id, so codes sort in issue order as strings.
+     */
+    public static String format(long id) {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            code[i] = DIGITS[(int) (id % 36)];
+            id /= 36;
+        }
+        return new String(code);
+    }
+
+    /**
+     * Inverse of {@link #format(long)}.
+     * @return the id, or -1 if the code is not a fixed-width base-36 id.
+     */
+    public static long parse(String code) {
+        if (code.length() != CODE_LENGTH) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            int digit = Character.digit(code.charAt(i), 36);
+            if (digit < 0 || Character.isLowerCase(code.charAt(i))) {
+                return -1;
+            }
+            id = id * 36 + digit;
+        }
+        return id;
+    }
+}
@@ -0,0 +1,134 @@
+package com.ykhaleq.airlineticketservice.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the results of recent requests by idempotency key, so a retried request returns the original
+ * result instead of claiming more seats.
+ *
+ * The first request with a key runs the action; concurrent and later requests with the same key wait for and
+ * share its result. Failures are not remembered, so a request that failed can be retried with the same key.
+ * Entries expire after a fixed time and the oldest are evicted beyond {@code max-entries}; since every entry lives
+ * equally long, insertion order is also expiry order and a FIFO queue is enough to find them.
+ */
+@Component
+public class IdempotencyCache {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    @Autowired
+    public IdempotencyCache(@Value("${seat.idempotency.ttl-seconds:600}") long ttlSeconds,
+                            @Value("${seat.idempotency.max-entries:100000}") int maxEntries) {
+        this(ttlSeconds, maxEntries, System::nanoTime);
+    }
+
+    IdempotencyCache(long ttlSeconds, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Run {@code action} once per key, returning the remembered result for repeated keys.
+     *
+     * @param scope distinguishes otherwise identical keys, e.g. the operation and customer
+     * @param key   the client-supplied idempotency key; without one the action simply runs
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String key, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String cacheKey = scope + '\u0000' + key;
+        long now = nanoClock.getAsLong();
+        evictExpired(now);
+
+        Entry entry = new Entry(cacheKey, now, new CompletableFuture<>());
+        while (true) {
+            Entry existing = entries.putIfAbsent(cacheKey, entry);
+            if (existing == null) {
+                break;
+            }
+            if (!existing.isExpired(now, ttlNanos)) {
+                return (T) await(existing);
+            }
+            if (entries.remove(cacheKey, existing)) {
+                size.decrementAndGet();
+            }
+        }
+        size.incrementAndGet();
+        insertionOrder.add(entry);
+        evictOverflow();
+
+        try {
+            T result = action.get();
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            // Forget the failure so the client can retry with the same key
+            if (entries.remove(cacheKey, entry)) {
+                size.decrementAndGet();
+            }
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Number of remembered keys, including requests still in progress
+    public int size() {
+        return size.get();
+    }
+
+    private static Object await(Entry entry) {
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void evictExpired(long now) {
+        Entry oldest;
+        while ((oldest = insertionOrder.peek()) != null && oldest.isExpired(now, ttlNanos)) {
+            evict(oldest);
+        }
+    }
+
+    private void evictOverflow() {
+        Entry oldest;
+        while (size.get() > maxEntries && (oldest = insertionOrder.peek()) != null) {
+            evict(oldest);
+        }
+    }
+
+    private void evict(Entry entry) {
+        if (insertionOrder.remove(entry) && entries.remove(entry.key, entry)) {
+            size.decrementAndGet();
+        }
+    }
+
+    private record Entry(String key, long createdNanos, CompletableFuture<Object> result) {
+        boolean isExpired(long now, long ttlNanos) {
+            return now - createdNanos > ttlNanos;
+        }
+    }
+}
@@ -1,49 +1,154 @@
 package com.ykhaleq.airlineticketservice.service;
 
+import com.ykhaleq.airlineticketservice.config.PricingProperties;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class PricingService {
 
-    private final Map<String, double[]> pricingRules;
+    // Compiled pricing rules; replaced as a whole on reload so readers always see one consistent set
+    private volatile PricingTables tables;
+    private final ReentrantLock reloadLock = new ReentrantLock(); // Serializes reloads without pinning virtual threads
 
     public PricingService() {
-        this.pricingRules = new HashMap<>();
+        this(new PricingProperties());
+    }
+
+    @Autowired
+    public PricingService(PricingProperties pricingProperties) {
+        this.tables = compile(pricingProperties.getLevels(), 0);
+    }
+
+    /**
+     * Replace the pricing rules, e.g. from the pricing admin endpoint. Every level priced before must still be priced,
+     * since flights already index their levels by price.
+     */
+    public void reload(List<PricingProperties.LevelPricing> levels) {
+        reloadLock.lock();
+        try {
+            PricingTables reloaded = compile(levels, tables.version() + 1);
+            for (PricingProperties.LevelPricing level : tables.levels()) {
+                if (!reloaded.ordinals().containsKey(level.getName())) {
+                    throw new IllegalArgumentException("No pricing configured for level: " + level.getName());
+                }
+            }
+            this.tables = reloaded;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * The pricing rules currently in effect.
+     */
+    public List<PricingProperties.LevelPricing> getLevels() {
+        return tables.levels();
+    }
 
-        // Define pricing tiers for each level
-        pricingRules.put("First Class", new double[]{500.0, 1000.0, 1600.0}); // Tiers based on reserved count
-        pricingRules.put("Business", new double[]{350.0, 450.0});
-        pricingRules.put("Premium Economy", new double[]{250.0, 150.0, 300.0});
-        pricingRules.put("Economy", new double[]{200.0}); // Flat pricing
+    /**
+     * Version of the pricing rules, incremented on every reload so derived indexes know to rebuild.
+     */
+    public long getVersion() {
+        return tables.version();
     }
 
     // Calculate price dynamically based on reserved count
     public double calculatePrice(String levelName, int reservedCount) {
-        double[] tiers = pricingRules.get(levelName);
-
-        if (levelName.equals("First Class")) {
-            if (reservedCount <= 10) {
-                return tiers[0]; // $500
-            } else if (reservedCount <= 30) {
-                return tiers[1]; // $1000
-            } else {
-                return tiers[2]; // $1600
+        return calculatePrice(levelOrdinal(levelName), reservedCount);
+    }
+
+    /**
+     * Price of the next seat in a level, looked up by the ordinal returned from {@link #levelOrdinal(String)}.
+     */
+    public double calculatePrice(int levelOrdinal, int reservedCount) {
+        TierTable table = tables.byOrdinal[levelOrdinal];
+        return table.prices[table.tierOf(reservedCount)];
+    }
+
+    /**
+     * Index of the pricing tier a level is in for the given reserved count; changes exactly when the price changes tier.
+     */
+    public int tierIndex(int levelOrdinal, int reservedCount) {
+        return tables.byOrdinal[levelOrdinal].tierOf(reservedCount);
+    }
+
+    /**
+     * Price charged by a level while it is in the given tier.
+     */
+    public double tierPrice(int levelOrdinal, int tierIndex) {
+        return tables.byOrdinal[levelOrdinal].prices[tierIndex];
+    }
+
+    /**
+     * Resolve a level name to the ordinal of its tier table, so hot paths can skip the name lookup.
+     */
+    public int levelOrdinal(String levelName) {
+        Integer ordinal = tables.ordinals.get(levelName);
+        if (ordinal == null) {
+            throw new IllegalArgumentException("No pricing configured for level: " + levelName);
+        }
+        return ordinal;
+    }
+
+    private static PricingTables compile(List<PricingProperties.LevelPricing> levels, long version) {
+        TierTable[] byOrdinal = new TierTable[levels.size()];
+        Map<String, Integer> ordinals = new HashMap<>();
+        List<PricingProperties.LevelPricing> copies = new ArrayList<>(levels.size());
+        for (int i = 0; i < levels.size(); i++) {
+            PricingProperties.LevelPricing level = levels.get(i);
+            if (level.getName() == null || level.getName().isBlank()) {
+                throw new IllegalArgumentException("Every pricing level needs a name.");
+            }
+            byOrdinal[i] = TierTable.compile(level);
+            if (ordinals.put(level.getName(), i) != null) {
+                throw new IllegalArgumentException("Duplicate pricing for level: " + level.getName());
+            }
+            // Copied, so later changes to the caller's objects cannot disagree with the compiled tables
+            copies.add(new PricingProperties.LevelPricing(level.getName(), level.getThresholds(), level.getPrices()));
+        }
+        return new PricingTables(byOrdinal, Map.copyOf(ordinals), List.copyOf(copies), version);
+    }
+
+    private record PricingTables(TierTable[] byOrdinal, Map<String, Integer> ordinals,
+                                 List<PricingProperties.LevelPricing> levels, long version) {
+    }
+
+    // Immutable tier table for one level: prices[i] applies while reservedCount <= thresholds[i]
+    private static final class TierTable {
+        private final int[] thresholds;
+        private final double[] prices;
+
+        private TierTable(int[] thresholds, double[] prices) {
+            this.thresholds = thresholds;
+            this.prices = prices;
+        }
+
+        static TierTable compile(PricingProperties.LevelPricing level) {
+            int[] thresholds = level.getThresholds().stream().mapToInt(Integer::intValue).toArray();
+            double[] prices = level.getPrices().stream().mapToDouble(Double::doubleValue).toArray();
+            if (prices.length != thresholds.length + 1) {
+                throw new IllegalArgumentException("Level " + level.getName() + " needs exactly one more price than thresholds.");
             }
-        } else if (levelName.equals("Business")) {
-            return reservedCount <= 45 ? tiers[0] : tiers[1]; // $350 or $450
-        } else if (levelName.equals("Premium Economy")) {
-            if (reservedCount <= 40) {
-                return tiers[0]; // $250
-            } else if (reservedCount <= 60) {
-                return tiers[1]; // $150
-            } else {
-                return tiers[2]; // $300
+            for (int i = 1; i < thresholds.length; i++) {
+                if (thresholds[i] <= thresholds[i - 1]) {
+                    throw new IllegalArgumentException("Thresholds for level " + level.getName() + " must be ascending.");
+                }
             }
-        } else {
-            return tiers[0]; // Economy: $200
+            return new TierTable(thresholds, prices);
+        }
+
+        int tierOf(int reservedCount) {
+            int position = Arrays.binarySearch(thresholds, reservedCount);
+            // An exact match is still within that tier; otherwise the insertion point is the tier
+            return position >= 0 ? position : -position - 1;
         }
     }
-}
\ No newline at end of file
+}
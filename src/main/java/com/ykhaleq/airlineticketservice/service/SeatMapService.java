@@ -0,0 +1,116 @@
+package com.ykhaleq.airlineticketservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ykhaleq.airlineticketservice.dto.SeatMap;
+import com.ykhaleq.airlineticketservice.model.AirplaneLayout;
+import com.ykhaleq.airlineticketservice.model.CabinLayout;
+import com.ykhaleq.airlineticketservice.model.SeatingLevel;
+import com.ykhaleq.airlineticketservice.repository.AirplaneLayoutRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves seat maps from pre-serialized snapshots.
+ *
+ * Each level's state version only ever grows, so their sum identifies the seat state of a flight. A request
+ * compares that sum against the cached snapshot and only re-serializes the map when a seat changed state;
+ * otherwise it returns the cached bytes, and the version doubles as the ETag.
+ */
+@Service
+public class SeatMapService {
+
+    private final AirplaneLayoutRepository layoutRepository;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<String, CachedSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    public SeatMapService(AirplaneLayoutRepository layoutRepository, ObjectMapper objectMapper) {
+        this.layoutRepository = layoutRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * A serialized seat map and the entity tag identifying its state.
+     */
+    public record Snapshot(String etag, byte[] body) {
+    }
+
+    // The layout is kept so a flight re-registered with a new layout never serves the old map
+    private record CachedSnapshot(AirplaneLayout layout, long version, Snapshot snapshot) {
+    }
+
+    /**
+     * The current seat map of a flight, rebuilt only if a seat changed state since the last call.
+     */
+    public Snapshot seatMap(String flightId) {
+        AirplaneLayout layout = layoutRepository.getLayout(flightId);
+        long version = stateVersion(layout);
+        CachedSnapshot cached = snapshots.get(flightId);
+        if (cached != null && cached.layout() == layout && cached.version() == version) {
+            return cached.snapshot();
+        }
+
+        // Built from state at least as new as the version read above; a later change gets a new version and a rebuild
+        Snapshot snapshot = new Snapshot(etag(layout, version), serialize(buildSeatMap(layout, version)));
+        snapshots.put(flightId, new CachedSnapshot(layout, version, snapshot));
+        return snapshot;
+    }
+
+    private static long stateVersion(AirplaneLayout layout) {
+        long version = 0;
+        for (SeatingLevel level : layout.getSeatingLevels()) {
+            version += level.getStateVersion();
+        }
+        return version;
+    }
+
+    private static String etag(AirplaneLayout layout, long version) {
+        return "\"" + Integer.toHexString(System.identityHashCode(layout)) + '-' + Long.toHexString(version) + '"';
+    }
+
+    SeatMap buildSeatMap(AirplaneLayout layout, long version) {
+        List<SeatMap.LevelMap> levels = new ArrayList<>(layout.getSeatingLevels().size());
+        for (SeatingLevel level : layout.getSeatingLevels()) {
+            levels.add(levelMap(level));
+        }
+        return new SeatMap(layout.getFlightId(), version, levels);
+    }
+
+    // Read the level's packed state once and render each row from the words, without creating seat objects
+    private static SeatMap.LevelMap levelMap(SeatingLevel level) {
+        CabinLayout cabin = level.getCabin();
+        long[] occupied = new long[level.getStateWordCount()];
+        long[] reserved = new long[level.getStateWordCount()];
+        level.copySeatState(occupied, reserved);
+
+        int seatsPerRow = level.getSeatsPerRow();
+        List<SeatMap.RowMap> rows = new ArrayList<>(level.getRows());
+        char[] states = new char[seatsPerRow];
+        for (int row = 0; row < level.getRows(); row++) {
+            for (int column = 0; column < seatsPerRow; column++) {
+                int index = row * seatsPerRow + column;
+                long bit = 1L << index;
+                if ((reserved[index >>> 6] & bit) != 0) {
+                    states[column] = SeatMap.RESERVED;
+                } else if ((occupied[index >>> 6] & bit) == 0) {
+                    states[column] = SeatMap.AVAILABLE;
+                } else {
+                    states[column] = level.isBlocked(index) ? SeatMap.BLOCKED : SeatMap.HELD;
+                }
+            }
+            rows.add(new SeatMap.RowMap(cabin.getFirstRow() + row, cabin.isExitRow(row), new String(states)));
+        }
+        return new SeatMap.LevelMap(level.getLevelName(), cabin.getSeatLetters(), rows);
+    }
+
+    private byte[] serialize(SeatMap seatMap) {
+        try {
+            return objectMapper.writeValueAsBytes(seatMap);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize the seat map of flight " + seatMap.flightId(), e);
+        }
+    }
+}
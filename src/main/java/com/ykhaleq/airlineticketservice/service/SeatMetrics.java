@@ -0,0 +1,162 @@
+package com.ykhaleq.airlineticketservice.service;
+
+import com.ykhaleq.airlineticketservice.model.AirplaneLayout;
+import com.ykhaleq.airlineticketservice.model.SeatingLevel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the seat operations. Timers and counters are registered once and kept in fields,
+ * so recording on the hot path is a clock read and an atomic add, with no registry lookup.
+ */
+public final class SeatMetrics {
+
+    // Operations, used as the "operation" tag
+    static final String HOLD = "hold";
+    static final String RESERVE = "reserve";
+    static final String RESERVE_DIRECT = "reserve-direct";
+    static final String RELEASE = "release";
+    static final String BATCH = "batch";
+    static final String CANCEL = "cancel";
+
+    private final MeterRegistry registry;
+    private final Timer holdTimer;
+    private final Timer reserveTimer;
+    private final Timer reserveDirectTimer;
+    private final Timer batchTimer;
+    private final Timer cancelTimer;
+    private final Counter holdConflicts;
+    private final Counter reserveDirectConflicts;
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final Map<String, BoundFlight> flights = new ConcurrentHashMap<>(); // Flight id -> its level gauges
+
+    // Level gauges registered for one layout of a flight
+    private record BoundFlight(AirplaneLayout layout, List<Meter> gauges) {
+    }
+
+    SeatMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.holdTimer = timer(HOLD);
+        this.reserveTimer = timer(RESERVE);
+        this.reserveDirectTimer = timer(RESERVE_DIRECT);
+        this.batchTimer = timer(BATCH);
+        this.cancelTimer = timer(CANCEL);
+        this.holdConflicts = conflicts(HOLD);
+        this.reserveDirectConflicts = conflicts(RESERVE_DIRECT);
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder("seat.operation")
+                .description("Latency of seat operations")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(500))
+                .maximumExpectedValue(Duration.ofSeconds(1))
+                .register(registry);
+    }
+
+    private Counter conflicts(String operation) {
+        return Counter.builder("seat.claim.conflicts")
+                .description("Seat claims retried because a concurrent request took a chosen seat")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    void stopHold(Timer.Sample sample) {
+        sample.stop(holdTimer);
+    }
+
+    void stopReserve(Timer.Sample sample) {
+        sample.stop(reserveTimer);
+    }
+
+    void stopReserveDirect(Timer.Sample sample) {
+        sample.stop(reserveDirectTimer);
+    }
+
+    void stopBatch(Timer.Sample sample) {
+        sample.stop(batchTimer);
+    }
+
+    void stopCancel(Timer.Sample sample) {
+        sample.stop(cancelTimer);
+    }
+
+    void holdConflict() {
+        holdConflicts.increment();
+    }
+
+    void reserveDirectConflict() {
+        reserveDirectConflicts.increment();
+    }
+
+    /**
+     * Count a request turned away, e.g. for lack of seats or an invalid hold.
+     */
+    void rejected(String operation, String reason) {
+        rejections.computeIfAbsent(operation + ':' + reason, key -> Counter.builder("seat.rejections")
+                .description("Seat requests rejected, by operation and reason")
+                .tag("operation", operation)
+                .tag("reason", reason)
+                .register(registry)).increment();
+    }
+
+    void bindHolds(Supplier<Number> activeHolds, Supplier<Number> expiredHolds) {
+        Gauge.builder("seat.holds.active", activeHolds)
+                .description("Holds that have not been reserved, released or expired")
+                .register(registry);
+        FunctionCounter.builder("seat.holds.expired", expiredHolds, supplier -> supplier.get().doubleValue())
+                .description("Holds released by the expiration sweep")
+                .register(registry);
+    }
+
+    /**
+     * Bind the occupancy gauges of every level of a flight. A flight registered again with a new layout has the
+     * gauges of its old levels removed first, since the registry would otherwise keep reading the old seat state.
+     */
+    void bindFlight(AirplaneLayout layout) {
+        flights.compute(layout.getFlightId(), (flightId, bound) -> {
+            if (bound != null && bound.layout() == layout) {
+                return bound;
+            }
+            if (bound != null) {
+                bound.gauges().forEach(registry::remove);
+            }
+            List<Meter> gauges = new ArrayList<>();
+            layout.getSeatingLevels().forEach(level -> bindLevel(flightId, level, gauges));
+            return new BoundFlight(layout, gauges);
+        });
+    }
+
+    // Occupancy gauges of one seating level, read from its maintained counters
+    private void bindLevel(String flightId, SeatingLevel level, List<Meter> gauges) {
+        gauges.add(Gauge.builder("seat.level.available", level, SeatingLevel::getAvailableCount)
+                .description("Seats neither held nor reserved")
+                .tag("flight", flightId).tag("level", level.getLevelName())
+                .register(registry));
+        gauges.add(Gauge.builder("seat.level.held", level, SeatingLevel::getHeldCount)
+                .description("Seats currently held")
+                .tag("flight", flightId).tag("level", level.getLevelName())
+                .register(registry));
+        gauges.add(Gauge.builder("seat.level.reserved", level,
+                        seats -> seats.getCapacity() - seats.getBlockedCount() - seats.getAvailableCount() - seats.getHeldCount())
+                .description("Seats reserved")
+                .tag("flight", flightId).tag("level", level.getLevelName())
+                .register(registry));
+    }
+}
@@ -1,69 +1,177 @@
 package com.ykhaleq.airlineticketservice.service;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ykhaleq.airlineticketservice.dto.BatchOperation;
+import com.ykhaleq.airlineticketservice.dto.BatchResult;
 import com.ykhaleq.airlineticketservice.exception.InvalidRequestException;
+import com.ykhaleq.airlineticketservice.exception.ReservationNotFoundException;
 import com.ykhaleq.airlineticketservice.exception.SeatHoldNotFoundException;
+import com.ykhaleq.airlineticketservice.exception.TooManyRequestsException;
+import com.ykhaleq.airlineticketservice.journal.JournalEvent;
+import com.ykhaleq.airlineticketservice.journal.ReservationJournal;
+import com.ykhaleq.airlineticketservice.model.AirplaneLayout;
+import com.ykhaleq.airlineticketservice.model.Reservation;
 import com.ykhaleq.airlineticketservice.model.Seat;
 import com.ykhaleq.airlineticketservice.model.SeatHold;
 import com.ykhaleq.airlineticketservice.model.SeatingLevel;
 import com.ykhaleq.airlineticketservice.repository.AirplaneLayoutRepository;
+import com.ykhaleq.airlineticketservice.repository.ReservationStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 @Service
 public class SeatService {
 
+    private static final Logger log = LoggerFactory.getLogger(SeatService.class);
+
+    // Upper bound on search-and-claim rounds when concurrent callers keep taking the chosen seats
+    private static final int MAX_CLAIM_ATTEMPTS = 16;
+
+    // Largest party one hold may ask for, matching the @Max on the request bodies
+    private static final int MAX_SEATS_PER_HOLD = 100;
+
     private final AirplaneLayoutRepository layoutRepository;
-    private final ConcurrentHashMap<Integer, SeatHold> ticketHolds;
+    private final ConcurrentHashMap<Long, SeatHold> ticketHolds;
     private final PricingService pricingService;
-    private int holdIdCounter = 1;
+    private final IdGenerator idGenerator;                    // Hold ids and confirmation codes
     private final int holdExpirationSeconds;
+    private final HoldExpirationWheel expirationWheel;        // Schedules proactive release of abandoned holds
+    private final AtomicLong expiredHoldCount = new AtomicLong(); // Total holds released by the expiration sweep
+    private volatile double holdsExpiredPerSecond;             // Expiry rate observed by the latest sweep
+    private volatile long lastSweepMillis;
+    private final boolean availabilityConsistencyCheck;       // Verify availability counters against a full recount
+    private final ReservationJournal journal;                 // Durable record of seat state transitions
+    private final SeatMetrics metrics;
+    private final ReservationStore reservationStore;          // Committed reservations by confirmation code and customer
+    private final HoldAdmissionControl admissionControl;      // Per-customer hold rate limit and active-hold quota
+    // Shared from a journal record until the state change it describes is applied, exclusive while a snapshot
+    // captures state, so a snapshot never misses a change whose record is in a segment it deletes
+    private final ReentrantReadWriteLock journalStateLock = new ReentrantReadWriteLock();
+
+    public SeatService(AirplaneLayoutRepository layoutRepository,
+                       PricingService pricingService,
+                       int holdExpirationSeconds) {
+        this(layoutRepository, pricingService, holdExpirationSeconds, 1000, false, ReservationJournal.disabled());
+    }
 
     public SeatService(AirplaneLayoutRepository layoutRepository,
                        PricingService pricingService,
-                       @Value("${seat.hold.expiration.seconds}") int holdExpirationSeconds) {
+                       int holdExpirationSeconds,
+                       long expirationTickMillis,
+                       boolean availabilityConsistencyCheck,
+                       ReservationJournal journal) {
+        this(layoutRepository, pricingService, holdExpirationSeconds, expirationTickMillis, availabilityConsistencyCheck,
+                journal, new SimpleMeterRegistry(), new IdGenerator(0), new ReservationStore(layoutRepository),
+                HoldAdmissionControl.unlimited());
+    }
+
+    @Autowired
+    public SeatService(AirplaneLayoutRepository layoutRepository,
+                       PricingService pricingService,
+                       @Value("${seat.hold.expiration.seconds}") int holdExpirationSeconds,
+                       @Value("${seat.hold.expiration.tick-millis:1000}") long expirationTickMillis,
+                       @Value("${seat.availability.consistency-check:false}") boolean availabilityConsistencyCheck,
+                       ReservationJournal journal,
+                       MeterRegistry meterRegistry,
+                       IdGenerator idGenerator,
+                       ReservationStore reservationStore,
+                       HoldAdmissionControl admissionControl) {
         this.layoutRepository = layoutRepository;
         this.ticketHolds = new ConcurrentHashMap<>();
         this.holdExpirationSeconds = holdExpirationSeconds;
         this.pricingService = pricingService;
+        this.lastSweepMillis = System.currentTimeMillis();
+        this.expirationWheel = new HoldExpirationWheel(expirationTickMillis, 512, lastSweepMillis);
+        this.availabilityConsistencyCheck = availabilityConsistencyCheck;
+        this.journal = journal;
+        this.idGenerator = idGenerator;
+        this.reservationStore = reservationStore;
+        this.admissionControl = admissionControl;
+        this.metrics = new SeatMetrics(meterRegistry);
+        metrics.bindHolds(ticketHolds::size, expiredHoldCount::get);
+        layoutRepository.onFlightRegistered(metrics::bindFlight);
     }
 
     /**
-     * Get the number of available seats by level.
+     * Rebuild holds and reservations from the reservation journal before serving requests.
+     */
+    @PostConstruct
+    public void recoverFromJournal() {
+        journal.recover(this::applyJournalEvent);
+    }
+
+    /**
+     * Get the number of available seats by level on the default flight.
      * @param levelNames Optional array of level names to filter by.
      * @return List of available seats with their level and count.
      */
     public List<AvailableSeats> numSeatsAvailable(Optional<String[]> levelNames) {
-        //Using Optional<String[]> for levelNames instead of a nullable array avoids null pointer issues
-        List<AvailableSeats> result = new ArrayList<>();
-        List<SeatingLevel> levels = layoutRepository.getSeatingLevels();
+        return numSeatsAvailable(AirplaneLayout.DEFAULT_FLIGHT_ID, levelNames);
+    }
 
-        // Filter levels if specific names are provided
-        if (levelNames.isPresent()) {
-            List<String> levelFilter = List.of(levelNames.get());
-            levels = levels.stream()
-                    .filter(level -> levelFilter.contains(level.getLevelName()))
-                    .toList();
-        }
+    /**
+     * Get the number of available seats by level.
+     * @param flightId The flight to query.
+     * @param levelNames Optional array of level names to filter by.
+     * @return List of available seats with their level and count.
+     */
+    public List<AvailableSeats> numSeatsAvailable(String flightId, Optional<String[]> levelNames) {
+        //Using Optional<String[]> for levelNames instead of a nullable array avoids null pointer issues
+        List<SeatingLevel> levels = layoutRepository.getSeatingLevels(flightId);
+        List<String> levelFilter = levelNames.map(List::of).orElse(null);
+        List<AvailableSeats> result = new ArrayList<>(levels.size());
 
-        // Count available seats in each level
+        // Read each level's maintained counter, skipping levels that were not requested
         for (SeatingLevel level : levels) {
-            long availableSeats = level.getSeats().stream()
-                    .filter(seat -> !seat.isHeld() && !seat.isReserved())
-                    .count();
-
-            result.add(new AvailableSeats(level.getLevelName(), availableSeats));
+            if (levelFilter != null && !levelFilter.contains(level.getLevelName())) {
+                continue;
+            }
+            long availableSeats = level.getAvailableCount();
+            if (availabilityConsistencyCheck) {
+                availableSeats = verifyAvailableCount(flightId, level);
+            }
+            result.add(new AvailableSeats(levels.indexOf(level), level.getLevelName(), availableSeats));
         }
 
         return result;
     }
 
+    // Recount a level's available seats and report any drift from its maintained counter
+    private long verifyAvailableCount(String flightId, SeatingLevel level) {
+        int counted = level.countAvailableSeats();
+        if (counted != level.getAvailableCount() || !level.hasConsistentCounters()) {
+            log.warn("Availability counter drift on flight {} level {}: counter={}, recount={}",
+                    flightId, level.getLevelName(), level.getAvailableCount(), counted);
+        }
+        return counted;
+    }
+
     /**
-     * Find and hold the best available seats in First Class.
+     * Find and hold the best available seats in First Class, preferring a contiguous block in one row.
      * The SeatHold Object is not an array due to only having First Class Seating
      *
      * @param numSeats      The number of seats to hold.
@@ -71,35 +179,79 @@ public class SeatService {
      * @return A SeatHold object containing the held seats.
      */
     public SeatHold findAndHoldSeats(int numSeats, String customerEmail) {
-        SeatingLevel firstClassLevel = layoutRepository.getSeatingLevel("First Class");
-        List<Seat> availableSeats = new ArrayList<>();
+        return findAndHoldSeats(AirplaneLayout.DEFAULT_FLIGHT_ID, numSeats, customerEmail);
+    }
 
-        // Collect available seats without modifying their state
-        for (Seat seat : firstClassLevel.getSeats()) {
-            if (!seat.isHeld() && !seat.isReserved()) {
-                availableSeats.add(seat);
-            }
-            if (availableSeats.size() == numSeats) {
-                break;
-            }
+    /**
+     * Find and hold the best available seats on a flight, in the level its aircraft places holds in.
+     *
+     * @param flightId      The flight to hold seats on.
+     * @param numSeats      The number of seats to hold.
+     * @param customerEmail The customer's email address.
+     * @return A SeatHold object containing the held seats.
+     */
+    public SeatHold findAndHoldSeats(String flightId, int numSeats, String customerEmail) {
+        Timer.Sample sample = metrics.start();
+        try {
+            SeatingLevel holdLevel = layoutRepository.getLayout(flightId).getHoldLevel();
+            return holdSeats(flightId, holdLevel, numSeats, customerEmail);
+        } finally {
+            metrics.stopHold(sample);
         }
+    }
 
-        // If not enough seats are available, throw an exception
-        if (availableSeats.size() < numSeats) {
-            throw new IllegalArgumentException("Not enough available seats to hold.");
+    private SeatHold holdSeats(String flightId, SeatingLevel holdLevel, int numSeats, String customerEmail) {
+        // Shed callers over their rate or hold quota before searching for seats
+        try {
+            admissionControl.acquireToken(customerEmail);
+        } catch (TooManyRequestsException e) {
+            metrics.rejected(SeatMetrics.HOLD, "rate-limited");
+            throw e;
+        }
+        try {
+            admissionControl.acquireHoldSlot(flightId, customerEmail);
+        } catch (TooManyRequestsException e) {
+            metrics.rejected(SeatMetrics.HOLD, "hold-quota");
+            throw e;
         }
 
-        // Mark the seats as held only after validation
-        for (Seat seat : availableSeats) {
-            seat.hold(); // Mark seat as held
+        try {
+            return claimHold(flightId, holdLevel, numSeats, customerEmail);
+        } catch (RuntimeException e) {
+            admissionControl.holdEnded(flightId, customerEmail); // No hold was placed, so give the slot back
+            throw e;
         }
+    }
 
-        // Create a SeatHold and store it
-        int holdId = holdIdCounter++;
-        SeatHold seatHold = new SeatHold(holdId, availableSeats, customerEmail, holdExpirationSeconds);
-        ticketHolds.put(holdId, seatHold);
+    private SeatHold claimHold(String flightId, SeatingLevel holdLevel, int numSeats, String customerEmail) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            // Pick seats that keep the party together, without modifying their state
+            int[] candidates = BestSeatAllocator.findBestSeats(holdLevel, numSeats);
 
-        return seatHold;
+            // If not enough seats are available, throw an exception
+            if (candidates.length < numSeats) {
+                metrics.rejected(SeatMetrics.HOLD, "insufficient-seats");
+                throw new IllegalArgumentException("Not enough available seats to hold.");
+            }
+
+            // Claim all candidates in one all-or-nothing step; retry the search if another request won a seat
+            if (!holdLevel.holdSeats(candidates)) {
+                metrics.holdConflict();
+                continue;
+            }
+
+            // Create a SeatHold and store it
+            long holdId = idGenerator.nextId();
+            SeatHold seatHold = new SeatHold(holdId, flightId, holdLevel.getSeats(candidates), customerEmail, holdExpirationSeconds);
+            ticketHolds.put(holdId, seatHold);
+            expirationWheel.schedule(seatHold);
+            journal.append(new JournalEvent.HoldPlaced(holdId, flightId, customerEmail,
+                    epochMillis(seatHold.getExpirationTime()), levelSeats(flightId, holdLevel, candidates)));
+
+            return seatHold;
+        }
+        metrics.rejected(SeatMetrics.HOLD, "contention");
+        throw new IllegalStateException("Seats are being claimed concurrently, please retry.");
     }
 
     /**
@@ -109,32 +261,243 @@ public class SeatService {
      *	@param customerEmail the email address of the customer to which the seat hold is assigned
      *	@return a reservation confirmation code
      */
-    public String reserveHeldSeats(int holdId, String customerEmail) {
+    public String reserveHeldSeats(long holdId, String customerEmail) {
+        return reserveHeldSeats(AirplaneLayout.DEFAULT_FLIGHT_ID, holdId, customerEmail);
+    }
+
+    /**
+     *	Commit seats held for a customer on a specific flight
+     *
+     *	@param flightId the flight the hold was placed on
+     *	@param holdId the seat hold identifier
+     *	@param customerEmail the email address of the customer to which the seat hold is assigned
+     *	@return a reservation confirmation code
+     */
+    public String reserveHeldSeats(String flightId, long holdId, String customerEmail) {
+        Timer.Sample sample = metrics.start();
+        try {
+            SeatHold seatHold = takeUnexpiredHold(flightId, holdId, customerEmail);
+
+            // Reserve the seats and count them towards the level's price
+            SeatingLevel level = commitHold(seatHold);
+            layoutRepository.recordReservations(flightId, level, seatHold.getHeldSeats().size());
+
+            // Generate a confirmation code
+            return ReservationStore.confirmationCode(holdId, false);
+        } finally {
+            metrics.stopReserve(sample);
+        }
+    }
+
+    /**
+     *	Release the seats of a hold back to inventory
+     *
+     *	@param flightId the flight the hold was placed on
+     *	@param holdId the seat hold identifier
+     *	@param customerEmail the email address of the customer to which the seat hold is assigned
+     */
+    public void releaseHold(String flightId, long holdId, String customerEmail) {
+        SeatHold seatHold = takeHold(SeatMetrics.RELEASE, flightId, holdId, customerEmail);
+        releaseSeats(seatHold);
+    }
+
+    /**
+     * Apply a batch of hold, reserve and release operations to one flight in a single pass.
+     * Each operation succeeds or fails on its own, and the results are returned in request order.
+     * Each reservation is counted towards its level's price as it is made, so later operations and concurrent
+     * requests see the same price tiers as they would after single-operation calls.
+     *
+     * @param flightId   The flight every operation applies to.
+     * @param operations The operations, applied in order.
+     * @return one result per operation.
+     */
+    public List<BatchResult> processBatch(String flightId, List<BatchOperation> operations) {
+        Timer.Sample sample = metrics.start();
+        try {
+            return applyBatch(flightId, operations);
+        } finally {
+            metrics.stopBatch(sample);
+        }
+    }
+
+    private List<BatchResult> applyBatch(String flightId, List<BatchOperation> operations) {
+        AirplaneLayout layout = layoutRepository.getLayout(flightId);
+        List<BatchResult> results = new ArrayList<>(operations.size());
+
+        for (BatchOperation operation : operations) {
+            try {
+                switch (operation.getType()) {
+                    case HOLD -> {
+                        if (operation.getNumSeats() < 1) {
+                            metrics.rejected(SeatMetrics.HOLD, "invalid-request");
+                            throw new InvalidRequestException("Number of seats must be greater than 0.");
+                        }
+                        if (operation.getNumSeats() > MAX_SEATS_PER_HOLD) {
+                            metrics.rejected(SeatMetrics.HOLD, "invalid-request");
+                            throw new InvalidRequestException("Number of seats must be at most " + MAX_SEATS_PER_HOLD + ".");
+                        }
+                        results.add(BatchResult.held(
+                                holdSeats(flightId, layout.getHoldLevel(), operation.getNumSeats(), operation.getCustomerEmail())));
+                    }
+                    case RESERVE -> {
+                        SeatHold seatHold = takeUnexpiredHold(flightId, operation.getHoldId(), operation.getCustomerEmail());
+                        SeatingLevel level = commitHold(seatHold);
+                        layoutRepository.recordReservations(flightId, level, seatHold.getHeldSeats().size());
+                        results.add(BatchResult.reserved(ReservationStore.confirmationCode(seatHold.getHoldId(), false)));
+                    }
+                    case RELEASE -> {
+                        releaseHold(flightId, operation.getHoldId(), operation.getCustomerEmail());
+                        results.add(BatchResult.released());
+                    }
+                }
+            } catch (RuntimeException e) {
+                results.add(BatchResult.failed(operation.getType(), e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Remove a hold from the active holds after checking it belongs to the customer and flight.
+     * Only one concurrent caller can take a given hold.
+     */
+    private SeatHold takeHold(String operation, String flightId, long holdId, String customerEmail) {
         // Retrieve the hold
         SeatHold seatHold = ticketHolds.get(holdId);
 
         // Validate the hold
-        if (seatHold == null) {
+        if (seatHold == null || !seatHold.getFlightId().equals(flightId)) {
+            metrics.rejected(operation, "hold-not-found");
             throw new SeatHoldNotFoundException("Invalid hold ID.");
         }
         if (!seatHold.getCustomerEmail().equals(customerEmail)) {
+            metrics.rejected(operation, "email-mismatch");
             throw new InvalidRequestException("Customer email does not match the hold.");
         }
+
+        // Remove the hold from active holds first, so only one concurrent caller can commit or release it
+        if (!ticketHolds.remove(holdId, seatHold)) {
+            metrics.rejected(operation, "hold-not-found");
+            throw new SeatHoldNotFoundException("Invalid hold ID.");
+        }
+        admissionControl.holdEnded(flightId, customerEmail);
+        return seatHold;
+    }
+
+    // Take a hold for reservation, releasing its seats instead if it has already expired
+    private SeatHold takeUnexpiredHold(String flightId, long holdId, String customerEmail) {
+        SeatHold seatHold = takeHold(SeatMetrics.RESERVE, flightId, holdId, customerEmail);
         if (seatHold.isExpired()) {
             // Release the seats if the hold is expired
-            seatHold.getHeldSeats().forEach(Seat::release);
-            ticketHolds.remove(holdId);
+            metrics.rejected(SeatMetrics.RESERVE, "hold-expired");
+            releaseSeats(seatHold);
             throw new IllegalStateException("The hold has expired.");
         }
+        return seatHold;
+    }
+
+    // Reserve the seats of a hold taken for reservation and store the reservation it turns into.
+    // Returns the hold's level; the caller counts the seats towards its price, once per request or per batch.
+    private SeatingLevel commitHold(SeatHold seatHold) {
+        return applyJournaled(() -> {
+            seatHold.getHeldSeats().forEach(Seat::reserve);
+            journal.append(new JournalEvent.HoldReserved(seatHold.getHoldId()));
+            return storeReservation(seatHold);
+        });
+    }
+
+    // Hold ids are unique, so a hold's id also identifies the reservation it turns into
+    private SeatingLevel storeReservation(SeatHold seatHold) {
+        SeatingLevel level = layoutRepository.getSeatingLevel(seatHold.getFlightId(), seatHold.getHeldSeats().get(0).getLevel());
+        reservationStore.add(seatHold.getHoldId(), false, seatHold.getFlightId(), seatHold.getCustomerEmail(),
+                Map.of(level, level.indexesOf(seatHold.getHeldSeats())));
+        return level;
+    }
+
+    /**
+     * Look up a reservation by its confirmation code.
+     *
+     * @param confirmationCode the code returned when the seats were reserved
+     * @return the reservation and its seats
+     */
+    public Reservation findReservation(String confirmationCode) {
+        return reservationStore.findByConfirmationCode(confirmationCode)
+                .orElseThrow(() -> new ReservationNotFoundException("Reservation not found: " + confirmationCode));
+    }
+
+    /**
+     * Cancel a reservation and return its seats to inventory. Each level's reserved count drops by the
+     * seats it got back, so its price moves back down a tier once the count falls below a threshold.
+     *
+     * @param confirmationCode the code returned when the seats were reserved
+     * @param customerEmail the email address the reservation was made with
+     * @return the cancelled reservation
+     */
+    public Reservation cancelReservation(String confirmationCode, String customerEmail) {
+        Timer.Sample sample = metrics.start();
+        try {
+            Reservation reservation = reservationStore.findByConfirmationCode(confirmationCode).orElse(null);
+            if (reservation == null) {
+                metrics.rejected(SeatMetrics.CANCEL, "reservation-not-found");
+                throw new ReservationNotFoundException("Reservation not found: " + confirmationCode);
+            }
+            if (!reservation.getCustomerEmail().equals(customerEmail)) {
+                metrics.rejected(SeatMetrics.CANCEL, "email-mismatch");
+                throw new InvalidRequestException("Customer email does not match the reservation.");
+            }
+
+            // Remove the reservation first, so only one concurrent caller returns its seats
+            if (!reservationStore.remove(reservation.getReservationId())) {
+                metrics.rejected(SeatMetrics.CANCEL, "reservation-not-found");
+                throw new ReservationNotFoundException("Reservation not found: " + confirmationCode);
+            }
+            Map<SeatingLevel, int[]> seatsByLevel = seatsByLevel(reservation);
+            List<JournalEvent.LevelSeats> cancelledSeats = new ArrayList<>(seatsByLevel.size());
+            seatsByLevel.forEach((level, indexes) -> cancelledSeats.add(levelSeats(reservation.getFlightId(), level, indexes)));
+
+            // Journal the cancellation while the seats are still reserved, so a hold that claims them comes after it
+            return applyJournaled(() -> {
+                journal.append(new JournalEvent.ReservationCancelled(reservation.getReservationId(),
+                        reservation.getFlightId(), cancelledSeats));
+                seatsByLevel.forEach((level, indexes) -> cancelSeats(reservation.getFlightId(), level, indexes));
+                return reservation;
+            });
+        } finally {
+            metrics.stopCancel(sample);
+        }
+    }
 
-        // Reserve the seats
-        seatHold.getHeldSeats().forEach(Seat::reserve);
+    // Return reserved seats to inventory and take the ones that were still reserved off the level's price count
+    private void cancelSeats(String flightId, SeatingLevel level, int[] indexes) {
+        int cancelled = 0;
+        for (int index : indexes) {
+            if (level.getSeat(index).cancel()) {
+                cancelled++;
+            }
+        }
+        layoutRepository.recordCancellations(flightId, level, cancelled);
+    }
 
-        // Remove the hold from active holds
-        ticketHolds.remove(holdId);
+    // Seat indexes of a reservation, grouped by level in cabin order
+    private Map<SeatingLevel, int[]> seatsByLevel(Reservation reservation) {
+        Map<SeatingLevel, List<Seat>> seats = new LinkedHashMap<>();
+        for (Seat seat : reservation.getSeats()) {
+            SeatingLevel level = layoutRepository.getSeatingLevel(reservation.getFlightId(), seat.getLevel());
+            seats.computeIfAbsent(level, l -> new ArrayList<>()).add(seat);
+        }
+        Map<SeatingLevel, int[]> indexes = new LinkedHashMap<>();
+        seats.forEach((level, levelSeats) -> indexes.put(level, level.indexesOf(levelSeats)));
+        return indexes;
+    }
 
-        // Generate a confirmation code
-        return "CONFIRM-" + holdId + "-" + System.currentTimeMillis();
+    /**
+     * All reservations made by a customer, oldest first.
+     *
+     * @param customerEmail the email address the reservations were made with
+     * @return the customer's reservations, empty if there are none
+     */
+    public List<Reservation> findReservations(String customerEmail) {
+        return reservationStore.findByCustomerEmail(customerEmail);
     }
 
     /**
@@ -155,52 +518,361 @@ public class SeatService {
             int maxPrice,
             Optional<String[]> levelNames
     ) {
-        List<Seat> availableSeats = new ArrayList<>();
+        return reserveBestAvailableSeats(AirplaneLayout.DEFAULT_FLIGHT_ID, numSeats, customerEmail, minPrice, maxPrice, levelNames);
+    }
+
+    /**
+     * Reserve the best available seats on a specific flight within a price range
+     *
+     *	@param flightId the flight to reserve seats on
+     *	@see #reserveBestAvailableSeats(int, String, int, int, Optional)
+     */
+    public String reserveBestAvailableSeats(
+            String flightId,
+            int numSeats,
+            String customerEmail,
+            int minPrice,
+            int maxPrice,
+            Optional<String[]> levelNames
+    ) {
+        Timer.Sample sample = metrics.start();
+        try {
+            for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+                // Jump straight to the levels currently priced within range, then filter by name if requested
+                List<SeatingLevel> levels = layoutRepository.getLevelsInPriceRange(flightId, minPrice, maxPrice);
+                if (levelNames.isPresent()) {
+                    List<String> levelFilter = List.of(levelNames.get());
+                    levels = levels.stream()
+                            .filter(level -> levelFilter.contains(level.getLevelName()))
+                            .toList();
+                }
+
+                Map<SeatingLevel, List<Seat>> claimedSeats = claimSeats(levels, numSeats);
+                if (claimedSeats == null) {
+                    metrics.reserveDirectConflict();
+                    continue;
+                }
+
+                // Reserve the best available seats and count them towards each level's price
+                long reservationId = applyJournaled(() -> {
+                    List<JournalEvent.LevelSeats> reservedSeats = new ArrayList<>(claimedSeats.size());
+                    Map<SeatingLevel, int[]> seatsByLevel = new LinkedHashMap<>();
+                    claimedSeats.forEach((level, seats) -> {
+                        seats.forEach(Seat::reserve);
+                        layoutRepository.recordReservations(flightId, level, seats.size());
+                        int[] indexes = level.indexesOf(seats);
+                        seatsByLevel.put(level, indexes);
+                        reservedSeats.add(levelSeats(flightId, level, indexes));
+                    });
+                    long id = idGenerator.nextId();
+                    journal.append(new JournalEvent.SeatsReserved(id, true, flightId, customerEmail, reservedSeats));
+                    reservationStore.add(id, true, flightId, customerEmail, seatsByLevel);
+                    return id;
+                });
 
-        // Retrieve and filter levels if specific names are provided
-        List<SeatingLevel> levels = layoutRepository.getSeatingLevels();
-        if (levelNames.isPresent()) {
-            List<String> levelFilter = List.of(levelNames.get());
-            levels = levels.stream()
-                    .filter(level -> levelFilter.contains(level.getLevelName()))
-                    .toList();
+                // Generate and return confirmation code
+                return ReservationStore.confirmationCode(reservationId, true);
+            }
+            metrics.rejected(SeatMetrics.RESERVE_DIRECT, "contention");
+            throw new IllegalStateException("Seats are being claimed concurrently, please retry.");
+        } finally {
+            metrics.stopReserveDirect(sample);
         }
+    }
 
-        // Collect all available seats within the price range
+    /**
+     * Hold the first {@code numSeats} available seats across the given levels, in level order.
+     * Each level's share is claimed atomically; if a later level loses a race, earlier claims are released.
+     *
+     * @return the claimed seats grouped by level, or null if a concurrent request took one of the chosen seats.
+     */
+    private Map<SeatingLevel, List<Seat>> claimSeats(List<SeatingLevel> levels, int numSeats) {
+        List<SeatingLevel> plannedLevels = new ArrayList<>();
+        List<int[]> plannedSeats = new ArrayList<>();
+        int found = 0;
+
+        // Collect available seats, stopping once enough are found
         for (SeatingLevel level : levels) {
-            List<Seat> levelSeats = level.getSeats().stream()
-                    .filter(seat -> !seat.isHeld() && !seat.isReserved())
-                    .filter(seat -> {
-                        double price = pricingService.calculatePrice(level.getLevelName(), level.getReservedCount());
-                        return price >= minPrice && price <= maxPrice;
-                    })
-                    .toList();
-            availableSeats.addAll(levelSeats);
+            if (found == numSeats) {
+                break;
+            }
+            if (level.getAvailableCount() == 0) {
+                continue;
+            }
+            int[] candidates = level.findAvailableSeatIndexes(numSeats - found);
+            if (candidates.length > 0) {
+                plannedLevels.add(level);
+                plannedSeats.add(candidates);
+                found += candidates.length;
+            }
         }
 
         // Ensure there are enough seats available
-        if (availableSeats.size() < numSeats) {
+        if (found < numSeats) {
+            metrics.rejected(SeatMetrics.RESERVE_DIRECT, "insufficient-seats");
             throw new IllegalArgumentException("Not enough available seats within the specified price range.");
         }
 
-        // Reserve the best available seats
-        List<Seat> seatsToReserve = availableSeats.subList(0, numSeats);
-        seatsToReserve.forEach(Seat::reserve);
+        Map<SeatingLevel, List<Seat>> claimedSeats = new LinkedHashMap<>();
+        for (int i = 0; i < plannedLevels.size(); i++) {
+            SeatingLevel level = plannedLevels.get(i);
+            if (!level.holdSeats(plannedSeats.get(i))) {
+                claimedSeats.values().forEach(seats -> seats.forEach(Seat::release));
+                return null;
+            }
+            claimedSeats.put(level, level.getSeats(plannedSeats.get(i)));
+        }
+        return claimedSeats;
+    }
+
+    /**
+     * Release the seats of every hold whose expiration time has passed and drop it from the active holds.
+     * Runs on a fixed schedule so abandoned holds free their seats without waiting for a reserve attempt.
+     */
+    @Scheduled(fixedDelayString = "${seat.hold.expiration.tick-millis:1000}")
+    public void expireHolds() {
+        expireHolds(System.currentTimeMillis());
+    }
+
+    /**
+     * Expire holds as of the given time.
+     * @return the number of holds released by this sweep.
+     */
+    int expireHolds(long nowMillis) {
+        int expired = 0;
+        for (SeatHold seatHold : expirationWheel.advance(nowMillis)) {
+            // Holds that were already committed or released are no longer in ticketHolds
+            if (ticketHolds.remove(seatHold.getHoldId(), seatHold)) {
+                admissionControl.holdEnded(seatHold.getFlightId(), seatHold.getCustomerEmail());
+                releaseSeats(seatHold);
+                expired++;
+            }
+        }
+        expiredHoldCount.addAndGet(expired);
+
+        long elapsedMillis = nowMillis - lastSweepMillis;
+        if (elapsedMillis > 0) {
+            holdsExpiredPerSecond = expired * 1000.0 / elapsedMillis;
+            lastSweepMillis = nowMillis;
+        }
+        if (expired > 0) {
+            log.debug("Released {} expired seat holds", expired);
+        }
+        return expired;
+    }
+
+    // Journal the release while the seats are still held, so a hold that claims them next is journaled after it
+    private void releaseSeats(SeatHold seatHold) {
+        journal.append(new JournalEvent.HoldReleased(seatHold.getHoldId()));
+        seatHold.getHeldSeats().forEach(Seat::release);
+    }
+
+    /**
+     * Compact the reservation journal into a snapshot of the current holds and reservations.
+     */
+    @Scheduled(fixedDelayString = "${seat.journal.snapshot-interval-millis:60000}")
+    public void snapshotJournal() {
+        journal.snapshot(() -> {
+            // Wait out changes whose record is already journaled, and hold off new ones while capturing
+            journalStateLock.writeLock().lock();
+            try {
+                return journalState();
+            } finally {
+                journalStateLock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Apply a state change that journals its record before it finishes, so no snapshot is captured in between
+    private <T> T applyJournaled(Supplier<T> change) {
+        if (!journal.isEnabled()) {
+            return change.get();
+        }
+        journalStateLock.readLock().lock();
+        try {
+            return change.get();
+        } finally {
+            journalStateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Events that rebuild the current seat state from an empty layout.
+     * Holds are captured before reserved seats, and reserved seats before stored reservations, so a hold
+     * committed mid-snapshot is still covered by one of them. Reserved seats that no stored reservation
+     * owns are written as one unattributed record per flight.
+     */
+    List<JournalEvent> journalState() {
+        List<SeatHold> holds = new ArrayList<>(ticketHolds.values());
+        Map<SeatingLevel, int[]> reservedIndexes = new HashMap<>();
+        for (String flightId : layoutRepository.getFlightIds()) {
+            for (SeatingLevel level : layoutRepository.getSeatingLevels(flightId)) {
+                reservedIndexes.put(level, level.getReservedSeatIndexes());
+            }
+        }
+
+        List<JournalEvent> events = new ArrayList<>();
+        Map<SeatingLevel, BitSet> attributed = new HashMap<>();
+        reservationStore.forEach(reservation -> {
+            Map<SeatingLevel, int[]> seatsByLevel = seatsByLevel(reservation);
+            List<JournalEvent.LevelSeats> reservedSeats = new ArrayList<>(seatsByLevel.size());
+            seatsByLevel.forEach((level, indexes) -> {
+                reservedSeats.add(levelSeats(reservation.getFlightId(), level, indexes));
+                BitSet owned = attributed.computeIfAbsent(level, l -> new BitSet());
+                for (int index : indexes) {
+                    owned.set(index);
+                }
+            });
+            events.add(new JournalEvent.SeatsReserved(reservation.getReservationId(), reservation.isDirect(),
+                    reservation.getFlightId(), reservation.getCustomerEmail(), reservedSeats));
+        });
+
+        for (String flightId : layoutRepository.getFlightIds()) {
+            List<JournalEvent.LevelSeats> unattributedSeats = new ArrayList<>();
+            for (SeatingLevel level : layoutRepository.getSeatingLevels(flightId)) {
+                BitSet owned = attributed.getOrDefault(level, new BitSet());
+                int[] indexes = Arrays.stream(reservedIndexes.getOrDefault(level, new int[0]))
+                        .filter(index -> !owned.get(index))
+                        .toArray();
+                if (indexes.length > 0) {
+                    unattributedSeats.add(levelSeats(flightId, level, indexes));
+                }
+            }
+            if (!unattributedSeats.isEmpty()) {
+                events.add(new JournalEvent.SeatsReserved(0, false, flightId, "", unattributedSeats));
+            }
+        }
+        for (SeatHold seatHold : holds) {
+            SeatingLevel level = layoutRepository.getSeatingLevel(seatHold.getFlightId(), seatHold.getHeldSeats().get(0).getLevel());
+            events.add(new JournalEvent.HoldPlaced(seatHold.getHoldId(), seatHold.getFlightId(), seatHold.getCustomerEmail(),
+                    epochMillis(seatHold.getExpirationTime()),
+                    levelSeats(seatHold.getFlightId(), level, level.indexesOf(seatHold.getHeldSeats()))));
+        }
+        return events;
+    }
+
+    /**
+     * Apply a replayed journal event. Events already reflected in the state are skipped,
+     * since a snapshot can overlap the segments that follow it.
+     */
+    void applyJournalEvent(JournalEvent event) {
+        if (event instanceof JournalEvent.HoldPlaced placed) {
+            long holdId = placed.holdId();
+            idGenerator.observe(holdId);
+            SeatingLevel level = journaledLevel(placed.flightId(), placed.seats());
+            if (level == null || ticketHolds.containsKey(holdId) || !level.holdSeats(placed.seats().seatIndexes())) {
+                return;
+            }
+            LocalDateTime expirationTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(placed.expiresAtMillis()), ZoneId.systemDefault());
+            SeatHold seatHold = new SeatHold(holdId, placed.flightId(), level.getSeats(placed.seats().seatIndexes()),
+                    placed.customerEmail(), expirationTime);
+            ticketHolds.put(holdId, seatHold);
+            expirationWheel.schedule(seatHold);
+            admissionControl.holdRestored(placed.flightId(), placed.customerEmail());
+        } else if (event instanceof JournalEvent.HoldReserved reserved) {
+            idGenerator.observe(reserved.holdId());
+            SeatHold seatHold = ticketHolds.remove(reserved.holdId());
+            if (seatHold != null) {
+                admissionControl.holdEnded(seatHold.getFlightId(), seatHold.getCustomerEmail());
+                seatHold.getHeldSeats().forEach(Seat::reserve);
+                SeatingLevel level = storeReservation(seatHold);
+                layoutRepository.recordReservations(seatHold.getFlightId(), level, seatHold.getHeldSeats().size());
+            }
+        } else if (event instanceof JournalEvent.HoldReleased released) {
+            idGenerator.observe(released.holdId());
+            SeatHold seatHold = ticketHolds.remove(released.holdId());
+            if (seatHold != null) {
+                admissionControl.holdEnded(seatHold.getFlightId(), seatHold.getCustomerEmail());
+                seatHold.getHeldSeats().forEach(Seat::release);
+            }
+        } else if (event instanceof JournalEvent.SeatsReserved reserved) {
+            if (reserved.reservationId() != 0) {
+                idGenerator.observe(reserved.reservationId());
+            }
+            Map<SeatingLevel, int[]> seatsByLevel = new LinkedHashMap<>();
+            for (JournalEvent.LevelSeats seats : reserved.seats()) {
+                SeatingLevel level = journaledLevel(reserved.flightId(), seats);
+                if (level == null) {
+                    continue;
+                }
+                seatsByLevel.put(level, seats.seatIndexes());
+                int claimed = 0;
+                for (int index : seats.seatIndexes()) {
+                    Seat seat = level.getSeat(index);
+                    if (seat.hold()) {
+                        seat.reserve();
+                        claimed++;
+                    }
+                }
+                layoutRepository.recordReservations(reserved.flightId(), level, claimed);
+            }
+            if (reserved.reservationId() != 0 && !seatsByLevel.isEmpty()) {
+                reservationStore.add(reserved.reservationId(), reserved.direct(), reserved.flightId(),
+                        reserved.customerEmail(), seatsByLevel);
+            }
+        } else if (event instanceof JournalEvent.ReservationCancelled cancelled) {
+            // The snapshot may hold these seats without their reservation, so release them either way;
+            // any later reservation of the same seats replays after this record
+            reservationStore.remove(cancelled.reservationId());
+            for (JournalEvent.LevelSeats seats : cancelled.seats()) {
+                SeatingLevel level = journaledLevel(cancelled.flightId(), seats);
+                if (level != null) {
+                    cancelSeats(cancelled.flightId(), level, seats.seatIndexes());
+                }
+            }
+        }
+    }
+
+    // Resolve the level a journal record refers to, or null if the flight is no longer configured
+    private SeatingLevel journaledLevel(String flightId, JournalEvent.LevelSeats seats) {
+        if (!layoutRepository.getFlightIds().contains(flightId)) {
+            log.warn("Skipping journal record for unknown flight {}", flightId);
+            return null;
+        }
+        return layoutRepository.getSeatingLevels(flightId).get(seats.level());
+    }
+
+    private JournalEvent.LevelSeats levelSeats(String flightId, SeatingLevel level, int[] indexes) {
+        return new JournalEvent.LevelSeats(layoutRepository.getSeatingLevels(flightId).indexOf(level), indexes);
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 
-        // Generate and return confirmation code
-        return "CONFIRM-DIRECT-" + System.currentTimeMillis();
+    // Number of holds that have not been committed, released or expired
+    public int getActiveHoldCount() {
+        return ticketHolds.size();
+    }
+
+    // Total number of holds released by the expiration sweep
+    public long getExpiredHoldCount() {
+        return expiredHoldCount.get();
+    }
+
+    // Holds expired per second over the latest sweep interval
+    public double getHoldsExpiredPerSecond() {
+        return holdsExpiredPerSecond;
     }
 
     // Nested DTO for returning available seats
     public static class AvailableSeats {
+        private final int levelIndex;     // Position of the level in the flight's cabin order
         private final String levelName;
         private final long availableSeats;
 
-        public AvailableSeats(String levelName, long availableSeats) {
+        public AvailableSeats(int levelIndex, String levelName, long availableSeats) {
+            this.levelIndex = levelIndex;
             this.levelName = levelName;
             this.availableSeats = availableSeats;
         }
 
+        // Only used by the binary encoding, which numbers levels instead of naming them on every seat
+        @JsonIgnore
+        public int getLevelIndex() {
+            return levelIndex;
+        }
+
         public String getLevelName() {
             return levelName;
         }
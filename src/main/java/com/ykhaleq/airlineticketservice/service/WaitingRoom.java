@@ -0,0 +1,238 @@
+package com.ykhaleq.airlineticketservice.service;
+
+import com.ykhaleq.airlineticketservice.dto.BatchOperation;
+import com.ykhaleq.airlineticketservice.dto.QueueTicket;
+import com.ykhaleq.airlineticketservice.exception.InvalidRequestException;
+import com.ykhaleq.airlineticketservice.exception.SeatsSoldOutException;
+import com.ykhaleq.airlineticketservice.exception.TooManyRequestsException;
+import com.ykhaleq.airlineticketservice.model.SeatHold;
+import com.ykhaleq.airlineticketservice.repository.AirplaneLayoutRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded FIFO waiting room for oversubscribed flights, enabled per flight with {@code seat.waiting-room.flights}.
+ *
+ * Customers join a flight's queue and get a ticket with a sequence number. Tickets are admitted in sequence order at
+ * {@code admit-per-second}; admission is computed from the elapsed time whenever a queue is read, so no thread drives
+ * it. An admitted ticket allows one hold within {@code admission-ttl-seconds}. Holds on these flights without an
+ * admitted ticket are refused, and once the hold level has no available seat every request is refused at once instead
+ * of being queued for a search that cannot succeed.
+ */
+@Component
+public class WaitingRoom {
+
+    private final AirplaneLayoutRepository layoutRepository;
+    private final Set<String> flights;       // Flights whose holds go through the waiting room
+    private final double admitPerNano;
+    private final int capacity;              // Most tickets waiting per flight
+    private final long admissionTtlNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, FlightQueue> queues = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Ticket> tickets = new ConcurrentHashMap<>(); // Token -> ticket
+
+    @Autowired
+    public WaitingRoom(AirplaneLayoutRepository layoutRepository,
+                       @Value("${seat.waiting-room.flights:}") String[] flights,
+                       @Value("${seat.waiting-room.admit-per-second:50}") double admitPerSecond,
+                       @Value("${seat.waiting-room.capacity:10000}") int capacity,
+                       @Value("${seat.waiting-room.admission-ttl-seconds:60}") long admissionTtlSeconds) {
+        this(layoutRepository, flights, admitPerSecond, capacity, admissionTtlSeconds, System::nanoTime);
+    }
+
+    WaitingRoom(AirplaneLayoutRepository layoutRepository, String[] flights, double admitPerSecond, int capacity,
+                long admissionTtlSeconds, LongSupplier nanoClock) {
+        if (admitPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Waiting room admission rate and capacity must be positive.");
+        }
+        this.layoutRepository = layoutRepository;
+        this.flights = ConcurrentHashMap.newKeySet();
+        for (String flight : flights) {
+            if (!flight.isBlank()) {
+                this.flights.add(flight.trim());
+            }
+        }
+        this.admitPerNano = admitPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = capacity;
+        this.admissionTtlNanos = TimeUnit.SECONDS.toNanos(admissionTtlSeconds);
+        this.nanoClock = nanoClock;
+    }
+
+    private record Ticket(String token, String flightId, String customerEmail, long sequence, long expiresAtNanos) {
+    }
+
+    // Tickets 1..issued were handed out, and 1..floor(admitted) may hold seats
+    private static final class FlightQueue {
+        private final ReentrantLock lock = new ReentrantLock(); // Not synchronized, so virtual threads do not pin
+        private long issued;
+        private double admitted;
+        private long advancedAtNanos;
+
+        FlightQueue(long nowNanos) {
+            this.advancedAtNanos = nowNanos;
+        }
+    }
+
+    public boolean isEnabled(String flightId) {
+        return flights.contains(flightId);
+    }
+
+    /**
+     * Join a flight's queue.
+     * @throws TooManyRequestsException if {@code capacity} tickets are already waiting
+     */
+    public QueueTicket join(String flightId, String customerEmail) {
+        checkEnabled(flightId);
+        checkNotSoldOut(flightId);
+        FlightQueue queue = queues.computeIfAbsent(flightId, id -> new FlightQueue(nanoClock.getAsLong()));
+        long sequence;
+        long position;
+        queue.lock.lock();
+        try {
+            long now = advance(queue);
+            long waiting = queue.issued - (long) queue.admitted;
+            if (waiting >= capacity) {
+                throw new TooManyRequestsException("The waiting room is full, please retry later.", waitSeconds(waiting));
+            }
+            sequence = ++queue.issued;
+            position = sequence - (long) queue.admitted;
+            Ticket ticket = new Ticket(UUID.randomUUID().toString(), flightId, customerEmail, sequence,
+                    now + waitNanos(position) + admissionTtlNanos);
+            tickets.put(ticket.token(), ticket);
+            return toQueueTicket(ticket, position);
+        } finally {
+            queue.lock.unlock();
+        }
+    }
+
+    /**
+     * Current position of a ticket in its flight's queue.
+     */
+    public QueueTicket status(String flightId, String token) {
+        checkEnabled(flightId);
+        checkNotSoldOut(flightId);
+        Ticket ticket = validTicket(flightId, token);
+        return toQueueTicket(ticket, position(ticket));
+    }
+
+    /**
+     * Run a hold for a customer admitted from the waiting room, using up their ticket if the hold succeeds.
+     * Flights without a waiting room hold directly.
+     */
+    public SeatHold hold(String flightId, String token, String customerEmail, Supplier<SeatHold> hold) {
+        if (!isEnabled(flightId)) {
+            return hold.get();
+        }
+        checkNotSoldOut(flightId);
+        if (token == null) {
+            throw new InvalidRequestException("Join the waiting room for this flight before holding seats.");
+        }
+        Ticket ticket = validTicket(flightId, token);
+        if (!ticket.customerEmail().equals(customerEmail)) {
+            throw new InvalidRequestException("Customer email does not match the waiting-room ticket.");
+        }
+        long position = position(ticket);
+        if (position > 0) {
+            throw new TooManyRequestsException("Not admitted yet; " + position + " ahead in the waiting room.",
+                    waitSeconds(position));
+        }
+
+        // Take the ticket so a concurrent request cannot use it too; hand it back if the hold fails
+        if (!tickets.remove(token, ticket)) {
+            throw new InvalidRequestException("Invalid or expired waiting-room ticket.");
+        }
+        try {
+            return hold.get();
+        } catch (RuntimeException e) {
+            tickets.putIfAbsent(token, ticket);
+            throw e;
+        }
+    }
+
+    /**
+     * Refuse batches that would hold seats on a waiting-room flight without a ticket.
+     */
+    public void checkBatch(String flightId, List<BatchOperation> operations) {
+        if (isEnabled(flightId) && operations.stream().anyMatch(operation -> operation.getType() == BatchOperation.Type.HOLD)) {
+            throw new InvalidRequestException("Holds on this flight must go through the waiting room.");
+        }
+    }
+
+    /**
+     * Drop tickets that were admitted but not used in time.
+     */
+    @Scheduled(fixedDelayString = "${seat.waiting-room.eviction-millis:10000}")
+    public void evictExpiredTickets() {
+        long now = nanoClock.getAsLong();
+        tickets.values().removeIf(ticket -> ticket.expiresAtNanos() - now <= 0);
+    }
+
+    // Number of tickets handed out and not yet used or expired
+    int getTicketCount() {
+        return tickets.size();
+    }
+
+    // Admit the tickets the elapsed time allows; time with nobody waiting is not banked for later bursts
+    private long advance(FlightQueue queue) {
+        long now = nanoClock.getAsLong();
+        queue.admitted = Math.min(queue.issued, queue.admitted + (now - queue.advancedAtNanos) * admitPerNano);
+        queue.advancedAtNanos = now;
+        return now;
+    }
+
+    // Tickets up to and including this one that are not admitted yet, or 0 once admitted
+    private long position(Ticket ticket) {
+        FlightQueue queue = queues.get(ticket.flightId());
+        queue.lock.lock();
+        try {
+            advance(queue);
+            return Math.max(0, ticket.sequence() - (long) queue.admitted);
+        } finally {
+            queue.lock.unlock();
+        }
+    }
+
+    private Ticket validTicket(String flightId, String token) {
+        Ticket ticket = tickets.get(token);
+        if (ticket == null || !ticket.flightId().equals(flightId) || ticket.expiresAtNanos() - nanoClock.getAsLong() <= 0) {
+            throw new InvalidRequestException("Invalid or expired waiting-room ticket.");
+        }
+        return ticket;
+    }
+
+    private void checkEnabled(String flightId) {
+        if (!isEnabled(flightId)) {
+            throw new InvalidRequestException("Flight " + flightId + " has no waiting room.");
+        }
+    }
+
+    // Reads the maintained counter of the level holds go to, so a sold-out flight turns requests away without a search
+    private void checkNotSoldOut(String flightId) {
+        if (layoutRepository.getLayout(flightId).getHoldLevel().getAvailableCount() == 0) {
+            throw new SeatsSoldOutException("Flight " + flightId + " has no seats left to hold.");
+        }
+    }
+
+    private QueueTicket toQueueTicket(Ticket ticket, long position) {
+        return new QueueTicket(ticket.token(), ticket.flightId(), position, position == 0, waitSeconds(position));
+    }
+
+    private long waitNanos(long position) {
+        return (long) Math.ceil(position / admitPerNano);
+    }
+
+    private long waitSeconds(long position) {
+        return position == 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos(position) + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+}
@@ -0,0 +1,71 @@
+package com.ykhaleq.airlineticketservice.controller;
+
+import com.ykhaleq.airlineticketservice.config.PricingProperties;
+import com.ykhaleq.airlineticketservice.repository.AirplaneLayoutRepository;
+import com.ykhaleq.airlineticketservice.service.PricingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = PricingController.class, properties = "pricing.admin.enabled=true")
+@EnableConfigurationProperties(PricingProperties.class)
+@Import(PricingService.class)
+public class PricingControllerTest {
+
+    private static final String FLAT_FARES = """
+            [{"name": "Economy", "prices": [180]},
+             {"name": "Premium Economy", "prices": [260]},
+             {"name": "Business", "thresholds": [20], "prices": [400, 500]},
+             {"name": "First Class", "prices": [900]}]
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AirplaneLayoutRepository layoutRepository; // Needed by the binary seat converter
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Test
+    public void testReloadPricing() throws Exception {
+        mockMvc.perform(get("/admin/pricing"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("First Class"))
+                .andExpect(jsonPath("$[0].prices[2]").value(1600.0));
+
+        mockMvc.perform(put("/admin/pricing")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(FLAT_FARES))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[3].name").value("First Class"));
+
+        assertEquals(900.0, pricingService.calculatePrice("First Class", 35));
+        assertEquals(500.0, pricingService.calculatePrice("Business", 21));
+        assertEquals(1, pricingService.getVersion());
+    }
+
+    @Test
+    public void testReloadPricing_MissingLevel() throws Exception {
+        mockMvc.perform(put("/admin/pricing")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\": \"Economy\", \"prices\": [180]}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("No pricing configured for level: First Class"));
+
+        assertEquals(0, pricingService.getVersion());
+        assertEquals(1600.0, pricingService.calculatePrice("First Class", 31));
+    }
+}
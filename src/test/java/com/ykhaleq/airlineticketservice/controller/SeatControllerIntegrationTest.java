@@ -1,29 +1,61 @@
 package com.ykhaleq.airlineticketservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ykhaleq.airlineticketservice.dto.BatchOperation;
+import com.ykhaleq.airlineticketservice.dto.BatchRequest;
+import com.ykhaleq.airlineticketservice.dto.BatchResult;
 import com.ykhaleq.airlineticketservice.dto.SeatHoldRequest;
 import com.ykhaleq.airlineticketservice.dto.ReserveSeatsRequest;
 import com.ykhaleq.airlineticketservice.dto.DirectReservationRequest;
+import com.ykhaleq.airlineticketservice.dto.QueueTicket;
+import com.ykhaleq.airlineticketservice.exception.FlightNotFoundException;
+import com.ykhaleq.airlineticketservice.exception.ReservationNotFoundException;
+import com.ykhaleq.airlineticketservice.exception.SeatsSoldOutException;
+import com.ykhaleq.airlineticketservice.exception.TooManyRequestsException;
+import com.ykhaleq.airlineticketservice.model.AirplaneLayout;
+import com.ykhaleq.airlineticketservice.model.Reservation;
+import com.ykhaleq.airlineticketservice.model.Seat;
 import com.ykhaleq.airlineticketservice.model.SeatHold;
+import com.ykhaleq.airlineticketservice.model.SeatingLevel;
+import com.ykhaleq.airlineticketservice.repository.AirplaneLayoutRepository;
+import com.ykhaleq.airlineticketservice.service.AvailabilityBroadcaster;
+import com.ykhaleq.airlineticketservice.service.IdempotencyCache;
+import com.ykhaleq.airlineticketservice.service.SeatMapService;
 import com.ykhaleq.airlineticketservice.service.SeatService;
+import com.ykhaleq.airlineticketservice.service.WaitingRoom;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest
+@Import(IdempotencyCache.class)
 public class SeatControllerIntegrationTest {
 
     @Autowired
@@ -32,21 +64,38 @@ public class SeatControllerIntegrationTest {
     @MockBean
     private SeatService seatService;
 
+    @MockBean
+    private AvailabilityBroadcaster availabilityBroadcaster;
+
+    @MockBean
+    private SeatMapService seatMapService;
+
+    @MockBean
+    private AirplaneLayoutRepository layoutRepository;
+
+    @MockBean
+    private WaitingRoom waitingRoom;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private SeatHold seatHold;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     public void setUp() {
+        // Flights have no waiting room unless a test says otherwise
+        Mockito.when(waitingRoom.hold(any(), any(), any(), any()))
+                .thenAnswer(invocation -> ((Supplier<SeatHold>) invocation.getArgument(3)).get());
         seatHold = new SeatHold(1, new ArrayList<>(), "test@example.com", 120);
-        Mockito.when(seatService.findAndHoldSeats(any(Integer.class), any(String.class)))
+        Mockito.when(seatService.findAndHoldSeats(any(String.class), any(Integer.class), any(String.class)))
                 .thenReturn(seatHold);
 
-        Mockito.when(seatService.reserveHeldSeats(any(Integer.class), any(String.class)))
+        Mockito.when(seatService.reserveHeldSeats(any(String.class), anyLong(), any(String.class)))
                 .thenReturn("CONFIRM-12345");
 
         Mockito.when(seatService.reserveBestAvailableSeats(
+                any(String.class),
                 any(Integer.class),
                 any(String.class),
                 any(Integer.class),
@@ -81,6 +130,15 @@ public class SeatControllerIntegrationTest {
                 .andExpect(jsonPath("$.message").exists());
     }
 
+    @Test
+    public void testHoldSeats_TooManySeats() throws Exception {
+        mockMvc.perform(post("/seats/hold")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numSeats\": 2000000000, \"customerEmail\": \"test@example.com\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Number of seats must be at most 100."));
+    }
+
     @Test
     public void testReserveHeldSeats_ValidRequest() throws Exception {
         ReserveSeatsRequest request = new ReserveSeatsRequest();
@@ -135,4 +193,301 @@ public class SeatControllerIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").exists());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testHoldSeats_FlightScopedPath() throws Exception {
+        SeatHoldRequest request = new SeatHoldRequest();
+        request.setNumSeats(2);
+        request.setCustomerEmail("test@example.com");
+
+        mockMvc.perform(post("/flights/UA100/seats/hold")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        Mockito.verify(seatService).findAndHoldSeats("UA100", 2, "test@example.com");
+    }
+
+    @Test
+    public void testGetAvailableSeats_UnknownFlight() throws Exception {
+        Mockito.when(seatService.numSeatsAvailable(eq("XX999"), any()))
+                .thenThrow(new FlightNotFoundException("Flight not found: XX999"));
+
+        mockMvc.perform(get("/flights/XX999/seats/available"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Flight not found: XX999"));
+    }
+
+    @Test
+    public void testBatch_ValidRequest() throws Exception {
+        BatchOperation hold = new BatchOperation();
+        hold.setType(BatchOperation.Type.HOLD);
+        hold.setNumSeats(2);
+        hold.setCustomerEmail("test@example.com");
+        BatchOperation reserve = new BatchOperation();
+        reserve.setType(BatchOperation.Type.RESERVE);
+        reserve.setHoldId(7);
+        reserve.setCustomerEmail("test@example.com");
+        BatchRequest request = new BatchRequest();
+        request.setOperations(List.of(hold, reserve));
+
+        Mockito.when(seatService.processBatch(eq("UA100"), any()))
+                .thenReturn(List.of(BatchResult.held(seatHold), BatchResult.failed(BatchOperation.Type.RESERVE, "Invalid hold ID.")));
+
+        mockMvc.perform(post("/flights/UA100/seats/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[0].seatHold.holdId").value(1))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].error").value("Invalid hold ID."));
+    }
+
+    @Test
+    public void testBatch_InvalidRequest() throws Exception {
+        BatchOperation hold = new BatchOperation();
+        hold.setType(BatchOperation.Type.HOLD);
+        hold.setNumSeats(2);
+        hold.setCustomerEmail("not-an-email");
+        BatchRequest request = new BatchRequest();
+        request.setOperations(List.of(hold));
+
+        mockMvc.perform(post("/seats/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+    }
+
+    @Test
+    public void testReserveDirect_IdempotencyKeyReplaysResult() throws Exception {
+        Mockito.when(seatService.reserveBestAvailableSeats(any(String.class), any(Integer.class), any(String.class),
+                        any(Integer.class), any(Integer.class), any(Optional.class)))
+                .thenReturn("CONFIRM-DIRECT-1", "CONFIRM-DIRECT-2");
+        DirectReservationRequest request = new DirectReservationRequest();
+        request.setNumSeats(2);
+        request.setMaxPrice(1000);
+        request.setCustomerEmail("retry@example.com");
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            mockMvc.perform(post("/seats/reserve-direct")
+                            .header("Idempotency-Key", "order-42")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$").value("CONFIRM-DIRECT-1"));
+        }
+        mockMvc.perform(post("/seats/reserve-direct")
+                        .header("Idempotency-Key", "order-43")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(jsonPath("$").value("CONFIRM-DIRECT-2"));
+
+        Mockito.verify(seatService, Mockito.times(2)).reserveBestAvailableSeats(
+                any(String.class), any(Integer.class), any(String.class), any(Integer.class), any(Integer.class), any(Optional.class));
+    }
+
+    @Test
+    public void testGetReservation() throws Exception {
+        Reservation reservation = new Reservation(1, false, "CONFIRM-0000000000A", "DEFAULT", "test@example.com",
+                List.of(new Seat("1A", "First Class")));
+        Mockito.when(seatService.findReservation("CONFIRM-0000000000A")).thenReturn(reservation);
+        Mockito.when(seatService.findReservation("CONFIRM-0000000000B"))
+                .thenThrow(new ReservationNotFoundException("Reservation not found: CONFIRM-0000000000B"));
+        Mockito.when(seatService.findReservations("test@example.com")).thenReturn(List.of(reservation));
+
+        mockMvc.perform(get("/reservations/CONFIRM-0000000000A"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.confirmationCode").value("CONFIRM-0000000000A"))
+                .andExpect(jsonPath("$.seats[0].seatNumber").value("1A"))
+                .andExpect(jsonPath("$.seats[0].index").doesNotExist())
+                .andExpect(jsonPath("$.reservationId").doesNotExist());
+
+        mockMvc.perform(get("/reservations/CONFIRM-0000000000B"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Reservation not found: CONFIRM-0000000000B"));
+
+        mockMvc.perform(get("/reservations").param("customerEmail", "test@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].customerEmail").value("test@example.com"));
+    }
+
+    @Test
+    public void testCancelReservationAndReleaseHold() throws Exception {
+        Reservation reservation = new Reservation(1, false, "CONFIRM-0000000000A", "DEFAULT", "test@example.com",
+                List.of(new Seat("1A", "First Class")));
+        Mockito.when(seatService.cancelReservation("CONFIRM-0000000000A", "test@example.com")).thenReturn(reservation);
+
+        mockMvc.perform(delete("/reservations/CONFIRM-0000000000A").param("customerEmail", "test@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.confirmationCode").value("CONFIRM-0000000000A"));
+
+        mockMvc.perform(post("/flights/UA100/seats/release")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"holdId\": 7, \"customerEmail\": \"test@example.com\"}"))
+                .andExpect(status().isNoContent());
+        Mockito.verify(seatService).releaseHold("UA100", 7, "test@example.com");
+
+        mockMvc.perform(post("/seats/release")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"holdId\": 0, \"customerEmail\": \"test@example.com\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Hold ID must be greater than 0."));
+    }
+
+    @Test
+    public void testSeatMapHonoursIfNoneMatch() throws Exception {
+        Mockito.when(seatMapService.seatMap("UA100")).thenReturn(new SeatMapService.Snapshot("\"1a-5\"",
+                "{\"flightId\":\"UA100\",\"version\":5,\"levels\":[]}".getBytes()));
+
+        mockMvc.perform(get("/flights/UA100/seats/map"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1a-5\""))
+                .andExpect(jsonPath("$.flightId").value("UA100"));
+
+        mockMvc.perform(get("/flights/UA100/seats/map").header("If-None-Match", "\"1a-4\", \"1a-5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1a-5\""));
+
+        mockMvc.perform(get("/flights/UA100/seats/map").header("If-None-Match", "\"1a-4\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testBinaryHoldAndAvailability() throws Exception {
+        // Seat ids number levels by their position on the flight, whatever order pricing lists them in
+        SeatingLevel business = new SeatingLevel("Business", 2, 3);
+        Mockito.when(layoutRepository.getLayout("UA100"))
+                .thenReturn(new AirplaneLayout("UA100", List.of(new SeatingLevel("Economy", 1, 1), business)));
+        SeatHold hold = new SeatHold(42, "UA100", List.of(business.getSeat(4), business.getSeat(5)), "test@example.com", 120);
+        Mockito.when(seatService.findAndHoldSeats("UA100", 2, "test@example.com")).thenReturn(hold);
+        Mockito.when(seatService.numSeatsAvailable(eq("UA100"), any()))
+                .thenReturn(List.of(new SeatService.AvailableSeats(1, "Business", 88)));
+
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(request);
+        out.writeInt(2);
+        out.writeShort("test@example.com".length());
+        out.writeBytes("test@example.com");
+
+        byte[] body = mockMvc.perform(post("/flights/UA100/seats/hold")
+                        .contentType(SeatBinaryMessageConverter.SEAT_BINARY)
+                        .accept(SeatBinaryMessageConverter.SEAT_BINARY)
+                        .content(request.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SeatBinaryMessageConverter.SEAT_BINARY))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        assertEquals(42, in.readLong());
+        assertEquals("UA100", new String(in.readNBytes(in.readUnsignedShort())));
+        assertEquals("test@example.com", new String(in.readNBytes(in.readUnsignedShort())));
+        in.readLong(); // Expiration
+        assertEquals(2, in.readInt());
+        assertEquals(1 << SeatBinaryMessageConverter.LEVEL_SHIFT | 4, in.readInt());
+        assertEquals(1 << SeatBinaryMessageConverter.LEVEL_SHIFT | 5, in.readInt());
+        assertEquals(0, in.available());
+
+        byte[] availability = mockMvc.perform(get("/flights/UA100/seats/available")
+                        .accept(SeatBinaryMessageConverter.SEAT_BINARY))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        in = new DataInputStream(new ByteArrayInputStream(availability));
+        assertEquals(1, in.readShort());
+        assertEquals(1, in.readByte());
+        assertEquals("Business", new String(in.readNBytes(in.readUnsignedShort())));
+        assertEquals(88, in.readInt());
+
+        // JSON stays the default, and binary requests are still validated
+        mockMvc.perform(get("/flights/UA100/seats/available"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].availableSeats").value(88))
+                .andExpect(jsonPath("$[0].levelIndex").doesNotExist());
+
+        ByteArrayOutputStream invalid = new ByteArrayOutputStream();
+        out = new DataOutputStream(invalid);
+        out.writeLong(0);
+        out.writeShort("test@example.com".length());
+        out.writeBytes("test@example.com");
+        mockMvc.perform(post("/seats/reserve")
+                        .contentType(SeatBinaryMessageConverter.SEAT_BINARY)
+                        .content(invalid.toByteArray()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Hold ID must be greater than 0."));
+    }
+
+    @Test
+    public void testBinaryClientGetsJsonErrors() throws Exception {
+        Mockito.when(seatService.findAndHoldSeats("UA100", 50, "test@example.com"))
+                .thenThrow(new IllegalArgumentException("Not enough available seats to hold."));
+
+        // Errors have no binary encoding, so they are sent as JSON even to a client that only accepts binary
+        mockMvc.perform(post("/flights/UA100/seats/hold")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(SeatBinaryMessageConverter.SEAT_BINARY)
+                        .content("{\"numSeats\": 50, \"customerEmail\": \"test@example.com\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.message").value("Not enough available seats to hold."));
+
+        mockMvc.perform(post("/flights/UA100/seats/hold")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(SeatBinaryMessageConverter.SEAT_BINARY)
+                        .content("{\"numSeats\": 0, \"customerEmail\": \"test@example.com\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.message").value("Number of seats must be greater than 0."));
+    }
+
+    @Test
+    public void testHoldRejectedWhenOverLimit() throws Exception {
+        Mockito.when(seatService.findAndHoldSeats("UA100", 2, "bot@example.com"))
+                .thenThrow(new TooManyRequestsException("Too many hold requests, please retry later.", 3));
+
+        mockMvc.perform(post("/flights/UA100/seats/hold")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numSeats\": 2, \"customerEmail\": \"bot@example.com\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(jsonPath("$.message").value("Too many hold requests, please retry later."));
+    }
+
+    @Test
+    public void testWaitingRoomTicketIsPassedToHold() throws Exception {
+        Mockito.when(waitingRoom.join("UA100", "test@example.com"))
+                .thenReturn(new QueueTicket("t-1", "UA100", 3, false, 2));
+        Mockito.when(waitingRoom.status("UA100", "t-1")).thenReturn(new QueueTicket("t-1", "UA100", 0, true, 0));
+
+        mockMvc.perform(post("/flights/UA100/seats/queue")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerEmail\": \"test@example.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ticket").value("t-1"))
+                .andExpect(jsonPath("$.position").value(3))
+                .andExpect(jsonPath("$.admitted").value(false));
+
+        mockMvc.perform(get("/flights/UA100/seats/queue/t-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.admitted").value(true));
+
+        mockMvc.perform(post("/flights/UA100/seats/hold")
+                        .header("Waiting-Room-Ticket", "t-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numSeats\": 2, \"customerEmail\": \"test@example.com\"}"))
+                .andExpect(status().isOk());
+        Mockito.verify(waitingRoom).hold(eq("UA100"), eq("t-1"), eq("test@example.com"), any());
+    }
+
+    @Test
+    public void testWaitingRoomSoldOut() throws Exception {
+        Mockito.when(waitingRoom.join("UA100", "late@example.com"))
+                .thenThrow(new SeatsSoldOutException("Flight UA100 has no seats left to hold."));
+
+        mockMvc.perform(post("/flights/UA100/seats/queue")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerEmail\": \"late@example.com\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Flight UA100 has no seats left to hold."));
+    }
+}
@@ -0,0 +1,166 @@
+package com.ykhaleq.airlineticketservice.controller;
+
+import com.ykhaleq.airlineticketservice.dto.SeatHoldRequest;
+import com.ykhaleq.airlineticketservice.exception.FlightNotFoundException;
+import com.ykhaleq.airlineticketservice.model.SeatHold;
+import com.ykhaleq.airlineticketservice.repository.AirplaneLayoutRepository;
+import com.ykhaleq.airlineticketservice.service.IdempotencyCache;
+import com.ykhaleq.airlineticketservice.service.PricingService;
+import com.ykhaleq.airlineticketservice.service.SeatService;
+import com.ykhaleq.airlineticketservice.service.WaitingRoom;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class SeatRouterTest {
+
+    private SeatService seatService;
+    private WebTestClient client;
+
+    @BeforeEach
+    public void setUp() {
+        seatService = Mockito.mock(SeatService.class);
+        WaitingRoom waitingRoom = new WaitingRoom(new AirplaneLayoutRepository(new PricingService()), new String[0], 1, 1, 60);
+        SeatRouter router = new SeatRouter(seatService, Validation.buildDefaultValidatorFactory().getValidator(), waitingRoom,
+                new IdempotencyCache(600, 100));
+        client = WebTestClient.bindToRouterFunction(router.routes()).build();
+    }
+
+    @Test
+    public void testHoldSeats_FlightScopedPath() {
+        Mockito.when(seatService.findAndHoldSeats("UA100", 2, "test@example.com"))
+                .thenReturn(new SeatHold(5, "UA100", new ArrayList<>(), "test@example.com", 120));
+        SeatHoldRequest request = new SeatHoldRequest();
+        request.setNumSeats(2);
+        request.setCustomerEmail("test@example.com");
+
+        client.post().uri("/flights/UA100/seats/hold")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.holdId").isEqualTo(5);
+    }
+
+    @Test
+    public void testHoldSeats_IdempotentRetry() {
+        Mockito.when(seatService.findAndHoldSeats("DEFAULT", 2, "test@example.com"))
+                .thenReturn(new SeatHold(5, "DEFAULT", new ArrayList<>(), "test@example.com", 120))
+                .thenReturn(new SeatHold(6, "DEFAULT", new ArrayList<>(), "test@example.com", 120));
+        SeatHoldRequest request = new SeatHoldRequest();
+        request.setNumSeats(2);
+        request.setCustomerEmail("test@example.com");
+
+        // A retry with the same key gets the original hold without holding more seats
+        for (int attempt = 0; attempt < 2; attempt++) {
+            client.post().uri("/seats/hold")
+                    .header("Idempotency-Key", "retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(request)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody().jsonPath("$.holdId").isEqualTo(5);
+        }
+        Mockito.verify(seatService, Mockito.times(1)).findAndHoldSeats("DEFAULT", 2, "test@example.com");
+
+        // A new key is a new request
+        client.post().uri("/seats/hold")
+                .header("Idempotency-Key", "retry-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.holdId").isEqualTo(6);
+    }
+
+    @Test
+    public void testReserveDirect_IdempotentRetry() {
+        Mockito.when(seatService.reserveBestAvailableSeats(eq("DEFAULT"), eq(2), eq("test@example.com"), eq(0), eq(1000), any()))
+                .thenReturn("CONFIRM-DIRECT-1")
+                .thenReturn("CONFIRM-DIRECT-2");
+        String body = "{\"numSeats\": 2, \"maxPrice\": 1000, \"customerEmail\": \"test@example.com\"}";
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            client.post().uri("/seats/reserve-direct")
+                    .header("Idempotency-Key", "retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(body)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(String.class).isEqualTo("CONFIRM-DIRECT-1");
+        }
+        Mockito.verify(seatService, Mockito.times(1))
+                .reserveBestAvailableSeats(eq("DEFAULT"), eq(2), eq("test@example.com"), eq(0), eq(1000), any());
+    }
+
+    @Test
+    public void testHoldSeats_InvalidRequest() {
+        SeatHoldRequest request = new SeatHoldRequest();
+        request.setNumSeats(0);
+        request.setCustomerEmail("test@example.com");
+
+        client.post().uri("/seats/hold")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Number of seats must be greater than 0.");
+    }
+
+    @Test
+    public void testGetAvailableSeats_UnknownFlight() {
+        Mockito.when(seatService.numSeatsAvailable(eq("XX999"), any()))
+                .thenThrow(new FlightNotFoundException("Flight not found: XX999"));
+
+        client.get().uri("/flights/XX999/seats/available")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("Flight not found: XX999");
+    }
+
+    @Test
+    public void testStreamAvailableSeats() {
+        Mockito.when(seatService.numSeatsAvailable(eq("DEFAULT"), any(Optional.class)))
+                .thenReturn(List.of(new SeatService.AvailableSeats(0, "First Class", 40)))
+                .thenReturn(List.of(new SeatService.AvailableSeats(0, "First Class", 37)));
+
+        List<String> events = client.get().uri("/seats/available/stream?intervalMillis=100")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseBody()
+                .take(2)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(2, events.size());
+        assertTrue(events.get(0).contains("\"availableSeats\":40"));
+        assertTrue(events.get(1).contains("\"availableSeats\":37"));
+    }
+
+    @Test
+    public void testStreamAvailableSeats_InvalidInterval() {
+        Mockito.when(seatService.numSeatsAvailable(eq("DEFAULT"), any(Optional.class)))
+                .thenReturn(List.of(new SeatService.AvailableSeats(0, "First Class", 40)));
+
+        client.get().uri("/seats/available/stream?intervalMillis=soon")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("intervalMillis must be a number of milliseconds.");
+    }
+}
@@ -1,11 +1,16 @@
 package com.ykhaleq.airlineticketservice.repository;
 
+import com.ykhaleq.airlineticketservice.config.PricingProperties;
+import com.ykhaleq.airlineticketservice.model.AircraftType;
+import com.ykhaleq.airlineticketservice.model.AirplaneLayout;
+import com.ykhaleq.airlineticketservice.model.CabinLayout;
 import com.ykhaleq.airlineticketservice.model.Seat;
 import com.ykhaleq.airlineticketservice.model.SeatingLevel;
 import com.ykhaleq.airlineticketservice.service.PricingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -110,4 +115,115 @@ public class AirplaneLayoutRepositoryTest {
 
         assertEquals("Invalid seating level: Nonexistent Level", exception.getMessage());
     }
+
+    @Test
+    void testPriceIndexFollowsReloadedPricing() {
+        PricingService pricingService = new PricingService();
+        AirplaneLayoutRepository flights = new AirplaneLayoutRepository(pricingService);
+        SeatingLevel firstClass = flights.getSeatingLevel("First Class");
+        flights.recordReservations(AirplaneLayout.DEFAULT_FLIGHT_ID, firstClass, 11); // Second tier, 1000
+
+        // First Class drops to a single tier, so its indexed tier no longer exists in the new rules
+        pricingService.reload(List.of(
+                new PricingProperties.LevelPricing("Economy", List.of(), List.of(200.0)),
+                new PricingProperties.LevelPricing("Premium Economy", List.of(), List.of(250.0)),
+                new PricingProperties.LevelPricing("Business", List.of(), List.of(350.0)),
+                new PricingProperties.LevelPricing("First Class", List.of(), List.of(800.0))));
+        flights.recordReservations(AirplaneLayout.DEFAULT_FLIGHT_ID, firstClass, 1);
+
+        assertEquals(List.of(firstClass), flights.getLevelsInPriceRange(AirplaneLayout.DEFAULT_FLIGHT_ID, 800, 800));
+        assertEquals(List.of(), flights.getLevelsInPriceRange(AirplaneLayout.DEFAULT_FLIGHT_ID, 1000, 1000));
+    }
+
+    @Test
+    void testPriceIndexQueriesDuringRebuild() throws InterruptedException {
+        PricingService pricingService = new PricingService();
+        AirplaneLayoutRepository flights = new AirplaneLayoutRepository(pricingService);
+        List<PricingProperties.LevelPricing> pricing = pricingService.getLevels();
+
+        // Every reload rebuilds the index; a query racing a rebuild must still see every level
+        Thread reloads = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                pricingService.reload(pricing);
+                flights.getLevelsInPriceRange(AirplaneLayout.DEFAULT_FLIGHT_ID, 0, Double.MAX_VALUE);
+            }
+        });
+        reloads.start();
+        int missing = 0;
+        while (reloads.isAlive()) {
+            if (flights.getLevelsInPriceRange(AirplaneLayout.DEFAULT_FLIGHT_ID, 0, Double.MAX_VALUE).size() != 4) {
+                missing++;
+            }
+        }
+        reloads.join();
+
+        assertEquals(0, missing);
+    }
+
+    @Test
+    void testParseAircraftLayout() throws Exception {
+        List<AircraftType> types = AircraftLayoutParser.parse("test.layout", new StringReader("""
+                # Two aircraft in one file
+                aircraft E175 hold "Economy"
+                level "Economy" rows 10-12 seats AB-CD exit 11 blocked 12D
+
+                aircraft CRJ hold "Economy"
+                level "Economy" rows 1-2 seats A-BC
+                """));
+
+        assertEquals(List.of("E175", "CRJ"), types.stream().map(AircraftType::getName).toList());
+        assertEquals("Economy", types.get(0).getHoldLevel());
+        CabinLayout cabin = types.get(0).getCabins().get(0);
+        assertEquals("ABCD", cabin.getSeatLetters());
+        assertTrue(cabin.isAisleAfter(1));
+        assertFalse(cabin.isAisleAfter(0));
+        assertEquals(0b10, cabin.getAisleMask());
+        assertEquals("10A", cabin.label(0));
+        assertEquals("12D", cabin.label(11));
+        assertTrue(cabin.isExitRow(1));
+        assertFalse(cabin.isExitRow(0));
+
+        // Blocked seats are out of inventory on every flight built from the layout
+        SeatingLevel level = types.get(0).newSeatingLevels().get(0);
+        assertTrue(level.isBlocked(11));
+        assertEquals(11, level.getAvailableCount());
+        assertFalse(level.getSeat(11).hold());
+        assertFalse(level.getSeat(11).isHeld());
+        assertTrue(level.hasConsistentCounters());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> AircraftLayoutParser.parse("bad.layout", new StringReader("aircraft X hold \"Economy\"\nlevel \"Economy\" rows 1-2 seats AB blocked 3A\n")));
+        assertEquals("bad.layout:2: Blocked seat 3A is outside level Economy", exception.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> AircraftLayoutParser.parse("bad.layout", new StringReader("level \"Economy\" rows 1-2 seats AB\n")));
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> AircraftLayoutParser.parse("bad.layout", new StringReader("aircraft X hold \"Economy\"\nlevel \"Economy\" rows 1-2 seats AB-\n")));
+        assertEquals("bad.layout:2: Aisles must separate seats: AB-", exception.getMessage());
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> AircraftLayoutParser.parse("bad.layout", new StringReader("aircraft X\nlevel \"Economy\" rows 1-2 seats AB\n")));
+        assertEquals("bad.layout:1: Aircraft X has no hold level: First Class", exception.getMessage());
+    }
+
+    @Test
+    void testFlightsUseConfiguredAircraftType() {
+        AirplaneLayoutRepository flights = new AirplaneLayoutRepository(new PricingService(), new String[]{"UA100:A320", "UA200"});
+
+        List<SeatingLevel> a320 = flights.getSeatingLevels("UA100");
+        assertEquals(List.of("Business", "Economy"), a320.stream().map(SeatingLevel::getLevelName).toList());
+        assertEquals("4A", a320.get(1).getSeat(0).getSeatNumber());
+        assertEquals(27 * 6 - 2, a320.get(1).getAvailableCount());
+        assertEquals("Business", flights.getLayout("UA100").getHoldLevel().getLevelName());
+        assertEquals(4, flights.getSeatingLevels("UA200").size());
+        assertEquals("First Class", flights.getLayout("UA200").getHoldLevel().getLevelName());
+
+        // Flights of one type share their cabin layouts and seat labels, but not seat state
+        flights.addFlight("UA300", "A320");
+        SeatingLevel other = flights.getSeatingLevel("UA300", "Economy");
+        assertSame(a320.get(1).getCabin(), other.getCabin());
+        assertSame(a320.get(1).getSeat(5).getSeatNumber(), other.getSeat(5).getSeatNumber());
+        assertTrue(a320.get(1).getSeat(5).hold());
+        assertFalse(other.getSeat(5).isHeld());
+
+        assertThrows(IllegalArgumentException.class, () -> flights.addFlight("UA400", "B747"));
+    }
 }
@@ -1,6 +1,8 @@
 package com.ykhaleq.airlineticketservice.service;
 
+import com.ykhaleq.airlineticketservice.config.PricingProperties;
 import com.ykhaleq.airlineticketservice.model.Seat;
+import com.ykhaleq.airlineticketservice.model.SeatStateBitmap;
 import com.ykhaleq.airlineticketservice.model.SeatingLevel;
 import com.ykhaleq.airlineticketservice.repository.AirplaneLayoutRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -51,6 +53,105 @@ public class AirlineTicketServiceTest {
         assertEquals("2C", seats.get(5).getSeatNumber());
     }
 
+    // Test: Packed seat state across word boundaries
+    @Test
+    void testSeatStateBitmapAcrossWords() {
+        SeatStateBitmap states = new SeatStateBitmap(130); // Spans three 64-bit words
+        assertEquals(130, states.getAvailableCount());
+
+        for (int i = 0; i < 64; i++) {
+            states.reserve(i);
+        }
+        states.hold(64);
+        states.hold(129);
+
+        assertEquals(64, states.getReservedCount());
+        assertEquals(2, states.getHeldCount());
+        assertEquals(64, states.getAvailableCount());
+        assertEquals(65, states.nextAvailable(0));
+        assertEquals(128, states.nextAvailable(128));
+        assertEquals(-1, states.nextAvailable(129));
+
+        states.release(129);
+        assertEquals(129, states.nextAvailable(129));
+        assertTrue(states.isAvailable(129));
+    }
+
+    // Test: Multi-seat claims are all-or-nothing
+    @Test
+    void testSeatStateBitmapHoldAllRollsBack() {
+        SeatStateBitmap states = new SeatStateBitmap(130);
+        assertTrue(states.hold(100));
+
+        // Seat 100 is already taken, so the claim on seats 1, 2 and 65 must be undone
+        assertFalse(states.holdAll(new int[]{1, 2, 65, 100}));
+        assertEquals(129, states.getAvailableCount());
+        assertFalse(states.isHeld(1));
+
+        assertTrue(states.holdAll(new int[]{1, 2, 65}));
+        assertFalse(states.hold(2));
+        assertEquals(4, states.getHeldCount());
+    }
+
+    // Test: Cancelling frees reserved seats only
+    @Test
+    void testSeatStateBitmapCancel() {
+        SeatStateBitmap states = new SeatStateBitmap(130, 6);
+        states.reserve(70);
+        assertTrue(states.hold(71));
+
+        assertFalse(states.cancel(71)); // Held, not reserved
+        assertTrue(states.cancel(70));
+        assertFalse(states.cancel(70));
+        assertTrue(states.isAvailable(70));
+        assertEquals(0, states.getReservedCount());
+        assertEquals(129, states.getAvailableCount());
+        assertTrue(states.isConsistent());
+        assertTrue(states.hold(70));
+    }
+
+    // Test: A reservation racing a release of the same hold leaves each seat either reserved or available
+    @Test
+    void testSeatStateBitmapReserveRacingRelease() throws InterruptedException {
+        int capacity = 200_000;
+        SeatStateBitmap states = new SeatStateBitmap(capacity, 10);
+        for (int i = 0; i < capacity; i++) {
+            assertTrue(states.hold(i));
+        }
+
+        Thread releases = new Thread(() -> {
+            for (int i = 0; i < capacity; i++) {
+                states.release(i);
+            }
+        });
+        releases.start();
+        for (int i = 0; i < capacity; i++) {
+            states.reserve(i);
+        }
+        releases.join();
+
+        for (int i = 0; i < capacity; i++) {
+            assertFalse(states.isReserved(i) && states.isAvailable(i), "Seat " + i + " is reserved but available");
+        }
+        assertEquals(0, states.getHeldCount());
+        assertEquals(capacity, states.getReservedCount() + states.getAvailableCount());
+        assertTrue(states.isConsistent());
+    }
+
+    // Test: Seats share their level's packed state
+    @Test
+    void testSeatViewsShareLevelState() {
+        SeatingLevel level = new SeatingLevel("Business", 2, 3);
+
+        level.getSeats().get(0).hold();
+        level.getSeats().get(1).reserve();
+
+        assertEquals(4, level.getAvailableCount());
+        assertEquals(2, level.nextAvailableSeatIndex(0));
+        assertTrue(level.getSeat(0).isHeld());
+        assertTrue(level.getSeat(1).isReserved());
+    }
+
     // Test: Reserved Count in SeatingLevel
     @Test
     void testReservedCountInSeatingLevel() {
@@ -85,6 +186,45 @@ public class AirlineTicketServiceTest {
         assertEquals(200.0, pricingService.calculatePrice("Economy", 100));
     }
 
+    // Test: PricingService tier boundaries and configured tables
+    @Test
+    void testPricingServiceTierBoundaries() {
+        // Premium Economy drops in the middle tier and rises again
+        assertEquals(250.0, pricingService.calculatePrice("Premium Economy", 40));
+        assertEquals(150.0, pricingService.calculatePrice("Premium Economy", 41));
+        assertEquals(150.0, pricingService.calculatePrice("Premium Economy", 60));
+        assertEquals(300.0, pricingService.calculatePrice("Premium Economy", 61));
+
+        // Ordinal lookups agree with name lookups
+        int business = pricingService.levelOrdinal("Business");
+        assertEquals(350.0, pricingService.calculatePrice(business, 45));
+        assertEquals(450.0, pricingService.calculatePrice(business, 46));
+        assertEquals(0, pricingService.tierIndex(business, 45));
+        assertEquals(1, pricingService.tierIndex(business, 46));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> pricingService.calculatePrice("Nonexistent Level", 0));
+        assertEquals("No pricing configured for level: Nonexistent Level", exception.getMessage());
+    }
+
+    // Test: PricingService loads and reloads configured fares
+    @Test
+    void testPricingServiceConfiguredFares() {
+        PricingProperties properties = new PricingProperties();
+        properties.setLevels(List.of(new PricingProperties.LevelPricing("First Class", List.of(5), List.of(700.0, 900.0))));
+        PricingService configured = new PricingService(properties);
+
+        assertEquals(700.0, configured.calculatePrice("First Class", 5));
+        assertEquals(900.0, configured.calculatePrice("First Class", 6));
+
+        configured.reload(List.of(new PricingProperties.LevelPricing("First Class", List.of(), List.of(650.0))));
+        assertEquals(650.0, configured.calculatePrice("First Class", 100));
+
+        // A tier table needs one more price than thresholds
+        assertThrows(IllegalArgumentException.class, () -> configured.reload(
+                List.of(new PricingProperties.LevelPricing("Economy", List.of(10), List.of(200.0)))));
+    }
+
     // Test: AirplaneLayoutRepository Initialization
     @Test
     void testAirplaneLayoutRepositoryInitialization() {
@@ -1,15 +1,43 @@
 package com.ykhaleq.airlineticketservice.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ykhaleq.airlineticketservice.dto.AvailabilityUpdate;
+import com.ykhaleq.airlineticketservice.dto.BatchOperation;
+import com.ykhaleq.airlineticketservice.dto.BatchResult;
+import com.ykhaleq.airlineticketservice.dto.QueueTicket;
+import com.ykhaleq.airlineticketservice.exception.FlightNotFoundException;
 import com.ykhaleq.airlineticketservice.exception.InvalidRequestException;
+import com.ykhaleq.airlineticketservice.exception.ReservationNotFoundException;
 import com.ykhaleq.airlineticketservice.exception.SeatHoldNotFoundException;
+import com.ykhaleq.airlineticketservice.exception.SeatsSoldOutException;
+import com.ykhaleq.airlineticketservice.exception.TooManyRequestsException;
+import com.ykhaleq.airlineticketservice.journal.JournalEvent;
+import com.ykhaleq.airlineticketservice.journal.ReservationJournal;
+import com.ykhaleq.airlineticketservice.model.AirplaneLayout;
+import com.ykhaleq.airlineticketservice.model.Reservation;
 import com.ykhaleq.airlineticketservice.model.Seat;
 import com.ykhaleq.airlineticketservice.model.SeatHold;
+import com.ykhaleq.airlineticketservice.model.SeatingLevel;
 import com.ykhaleq.airlineticketservice.repository.AirplaneLayoutRepository;
+import com.ykhaleq.airlineticketservice.repository.ReservationStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -68,6 +96,17 @@ public class SeatServiceTest {
         assertEquals("Not enough available seats to hold.", exception.getMessage());
     }
 
+    @Test
+    void testFindAndHoldSeats_PartyFarLargerThanLevel() {
+        // The search never sizes its result by the requested count, so a huge party is refused like any other
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> seatService.findAndHoldSeats(Integer.MAX_VALUE, "test@example.com"));
+        assertEquals("Not enough available seats to hold.", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> seatService.reserveBestAvailableSeats(
+                Integer.MAX_VALUE, "test@example.com", 0, 10000, Optional.empty()));
+        assertEquals(40, repository.getSeatingLevel("First Class").getAvailableCount());
+    }
+
     @Test
     void testReserveHeldSeats_Success() {
         // Hold some seats
@@ -194,4 +233,771 @@ public class SeatServiceTest {
                 .count();
         assertEquals(3, totalReservedSeats);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindAndHoldSeats_ConcurrentRequestsNeverShareSeats() throws InterruptedException {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<SeatHold> holds = new ConcurrentLinkedQueue<>();
+
+        // 100 requests for 3 seats each compete for the 40 First Class seats
+        for (int i = 0; i < 100; i++) {
+            executor.submit(() -> {
+                start.await();
+                try {
+                    holds.add(seatService.findAndHoldSeats(3, "test@example.com"));
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    // Sold out or lost the race
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Set<String> seatNumbers = new HashSet<>();
+        Set<Long> holdIds = new HashSet<>();
+        List<Seat> heldSeats = new ArrayList<>();
+        for (SeatHold hold : holds) {
+            assertTrue(holdIds.add(hold.getHoldId()));
+            heldSeats.addAll(hold.getHeldSeats());
+        }
+        heldSeats.forEach(seat -> assertTrue(seatNumbers.add(seat.getSeatNumber()), "Seat held twice: " + seat));
+
+        assertEquals(13, holds.size()); // 13 * 3 = 39 seats, one left over
+        assertEquals(1, repository.getSeatingLevel("First Class").getAvailableCount());
+        assertTrue(repository.getSeatingLevel("First Class").hasConsistentCounters());
+    }
+
+    @Test
+    void testFlightsHaveIndependentInventory() {
+        AirplaneLayoutRepository flights = new AirplaneLayoutRepository(pricingService, new String[]{"UA100", "UA200"});
+        SeatService flightService = new SeatService(flights, pricingService, 120);
+
+        SeatHold seatHold = flightService.findAndHoldSeats("UA100", 4, "test@example.com");
+        assertEquals("UA100", seatHold.getFlightId());
+
+        assertEquals(36, flights.getSeatingLevel("UA100", "First Class").getAvailableCount());
+        assertEquals(40, flights.getSeatingLevel("UA200", "First Class").getAvailableCount());
+
+        // A hold can only be committed on the flight it was placed on
+        assertThrows(SeatHoldNotFoundException.class,
+                () -> flightService.reserveHeldSeats("UA200", seatHold.getHoldId(), "test@example.com"));
+        assertNotNull(flightService.reserveHeldSeats("UA100", seatHold.getHoldId(), "test@example.com"));
+    }
+
+    @Test
+    void testUnknownFlight() {
+        FlightNotFoundException exception = assertThrows(FlightNotFoundException.class,
+                () -> seatService.numSeatsAvailable("XX999", Optional.empty()));
+        assertEquals("Flight not found: XX999", exception.getMessage());
+    }
+
+    @Test
+    void testExpireHolds_ReleasesAbandonedHolds() {
+        SeatService shortExpiryService = new SeatService(repository, pricingService, 1); // 1 second expiration
+        SeatHold seatHold = shortExpiryService.findAndHoldSeats(3, "test@example.com");
+        assertEquals(37, repository.getSeatingLevel("First Class").getAvailableCount());
+
+        // Nothing is due yet
+        assertEquals(0, shortExpiryService.expireHolds(System.currentTimeMillis()));
+        assertEquals(1, shortExpiryService.getActiveHoldCount());
+
+        // Sweep well past the expiration time
+        assertEquals(1, shortExpiryService.expireHolds(System.currentTimeMillis() + 5000));
+        assertEquals(0, shortExpiryService.getActiveHoldCount());
+        assertEquals(1, shortExpiryService.getExpiredHoldCount());
+        assertEquals(40, repository.getSeatingLevel("First Class").getAvailableCount());
+        seatHold.getHeldSeats().forEach(seat -> assertFalse(seat.isHeld()));
+
+        assertThrows(SeatHoldNotFoundException.class,
+                () -> shortExpiryService.reserveHeldSeats(seatHold.getHoldId(), "test@example.com"));
+    }
+
+    @Test
+    void testExpireHolds_SkipsCommittedHolds() {
+        SeatService shortExpiryService = new SeatService(repository, pricingService, 1);
+        SeatHold seatHold = shortExpiryService.findAndHoldSeats(2, "test@example.com");
+        shortExpiryService.reserveHeldSeats(seatHold.getHoldId(), "test@example.com");
+
+        assertEquals(0, shortExpiryService.expireHolds(System.currentTimeMillis() + 5000));
+        seatHold.getHeldSeats().forEach(seat -> assertTrue(seat.isReserved()));
+    }
+
+    @Test
+    void testAvailabilityCountersMatchRecount() {
+        SeatService checkedService = new SeatService(repository, pricingService, 1, 1000, true, ReservationJournal.disabled());
+
+        SeatHold expiring = checkedService.findAndHoldSeats(4, "test@example.com");
+        SeatHold committed = checkedService.findAndHoldSeats(3, "test@example.com");
+        checkedService.reserveHeldSeats(committed.getHoldId(), "test@example.com");
+        checkedService.reserveBestAvailableSeats(5, "test@example.com", 0, 1000, Optional.of(new String[]{"Business"}));
+        checkedService.expireHolds(System.currentTimeMillis() + 5000);
+
+        List<SeatService.AvailableSeats> result = checkedService.numSeatsAvailable(Optional.empty());
+        assertEquals(37, result.get(0).getAvailableSeats());
+        assertEquals(85, result.get(1).getAvailableSeats());
+        expiring.getHeldSeats().forEach(seat -> assertFalse(seat.isHeld()));
+
+        repository.getSeatingLevels().forEach(level -> {
+            assertTrue(level.hasConsistentCounters(), level.getLevelName());
+            assertEquals(level.countAvailableSeats(), level.getAvailableCount());
+        });
+    }
+
+    @Test
+    void testReserveBestAvailableSeats_PriceTierMovesLevelOutOfRange() {
+        // First Class stays at $500 for the first 10 reservations
+        seatService.reserveBestAvailableSeats(11, "test@example.com", 500, 500, Optional.of(new String[]{"First Class"}));
+        assertEquals(11, repository.getSeatingLevel("First Class").getReservedCount());
+        assertEquals(1000.0, repository.getNextSeatPrice("First Class"));
+
+        // First Class is now priced out of a $500 range, Business and Economy are not in it either
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> seatService.reserveBestAvailableSeats(1, "test@example.com", 500, 500, Optional.empty()));
+        assertEquals("Not enough available seats within the specified price range.", exception.getMessage());
+
+        // The $1000 tier is served from First Class
+        seatService.reserveBestAvailableSeats(1, "test@example.com", 1000, 1000, Optional.empty());
+        assertEquals(12, repository.getSeatingLevel("First Class").getReservedCount());
+    }
+
+    @Test
+    void testGetLevelsInPriceRange() {
+        List<String> levels = repository.getLevelsInPriceRange(AirplaneLayout.DEFAULT_FLIGHT_ID, 200, 350).stream()
+                .map(SeatingLevel::getLevelName)
+                .toList();
+        assertEquals(List.of("Business", "Premium Economy", "Economy"), levels);
+
+        // Reserving held seats counts towards the level's price as well
+        SeatHold seatHold = seatService.findAndHoldSeats(11, "test@example.com");
+        seatService.reserveHeldSeats(seatHold.getHoldId(), "test@example.com");
+        assertTrue(repository.getLevelsInPriceRange(AirplaneLayout.DEFAULT_FLIGHT_ID, 500, 500).isEmpty());
+        assertEquals("First Class", repository.getLevelsInPriceRange(AirplaneLayout.DEFAULT_FLIGHT_ID, 1000, 1000).get(0).getLevelName());
+    }
+
+    @Test
+    void testFindAndHoldSeats_KeepsPartyInOneRow() {
+        SeatHold single = seatService.findAndHoldSeats(1, "solo@example.com");
+        assertEquals("1A", single.getHeldSeats().get(0).getSeatNumber());
+
+        // Row 1 only has three free seats left, so a party of four moves to row 2
+        SeatHold party = seatService.findAndHoldSeats(4, "party@example.com");
+        assertEquals(List.of("2A", "2B", "2C", "2D"), seatNumbers(party));
+
+        // No First Class row seats three side by side across its aisle, so the trio takes the smallest run of rows
+        SeatHold trio = seatService.findAndHoldSeats(3, "trio@example.com");
+        assertEquals(List.of("1B", "1C", "1D"), seatNumbers(trio));
+    }
+
+    @Test
+    void testFindAndHoldSeats_DoesNotSeatPairAcrossAisle() {
+        seatService.findAndHoldSeats(1, "solo@example.com"); // 1A
+
+        // 1B and 1C are free and next to each other in the seat letters, but First Class is laid out AB-CD
+        SeatHold pair = seatService.findAndHoldSeats(2, "pair@example.com");
+        assertEquals(List.of("1C", "1D"), seatNumbers(pair));
+    }
+
+    @Test
+    void testFindAndHoldSeats_LargePartyUsesAdjacentRows() {
+        seatService.findAndHoldSeats(2, "first@example.com"); // 1A, 1B
+        seatService.findAndHoldSeats(3, "second@example.com"); // 2A, 2B, 2C
+
+        // Six seats cannot fit one 4-seat row: rows 3 and 4 seat them together, rather than the gaps in rows 1 to 3
+        SeatHold party = seatService.findAndHoldSeats(6, "party@example.com");
+        assertEquals(List.of("3A", "3B", "3C", "3D", "4A", "4B"), seatNumbers(party));
+        assertTrue(repository.getSeatingLevel("First Class").hasConsistentCounters());
+    }
+
+    @Test
+    void testFindAndHoldSeats_AircraftWithoutFirstClass() {
+        repository.addFlight("UA320", "A320");
+
+        // The A320 has no First Class, so its holds go to Business, laid out AC-DF
+        SeatHold pair = seatService.findAndHoldSeats("UA320", 2, "pair@example.com");
+        assertEquals(List.of("1A", "1C"), seatNumbers(pair));
+        assertEquals("Business", pair.getHeldSeats().get(0).getLevel());
+
+        // Batches on the flight place their holds there too, and reserve and release without touching First Class
+        List<BatchResult> results = seatService.processBatch("UA320", List.of(
+                batchOperation(BatchOperation.Type.HOLD, 3, 0, "trio@example.com"),
+                batchOperation(BatchOperation.Type.RESERVE, 0, pair.getHoldId(), "pair@example.com")));
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(3, results.get(0).getSeatHold().getHeldSeats().size());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(12 - 5, repository.getSeatingLevel("UA320", "Business").getAvailableCount());
+    }
+
+    private static List<String> seatNumbers(SeatHold seatHold) {
+        return seatHold.getHeldSeats().stream().map(Seat::getSeatNumber).toList();
+    }
+
+    @Test
+    void testJournalReplayRestoresHoldsAndReservations(@TempDir Path journalDir) {
+        SeatService journaled = journaledService(journalDir);
+        SeatHold committed = journaled.findAndHoldSeats(3, "a@example.com");
+        journaled.findAndHoldSeats(4, "c@example.com");
+        journaled.reserveHeldSeats(committed.getHoldId(), "a@example.com");
+        journaled.reserveBestAvailableSeats(5, "d@example.com", 0, 1000, Optional.of(new String[]{"Business"}));
+        assertEquals(1, journaled.expireHolds(System.currentTimeMillis() + 125_000));
+        SeatHold reheld = journaled.findAndHoldSeats(1, "e@example.com");
+        journaled.reserveHeldSeats(reheld.getHoldId(), "e@example.com");
+        SeatHold pending = journaled.findAndHoldSeats(2, "b@example.com");
+
+        AirplaneLayoutRepository restoredRepository = new AirplaneLayoutRepository(new PricingService());
+        SeatService restored = journaledService(journalDir, restoredRepository);
+
+        assertAvailabilityMatches(journaled, restored);
+        assertEquals(1, restored.getActiveHoldCount());
+        assertEquals(4, restoredRepository.getSeatingLevel("First Class").getReservedCount());
+        assertEquals(5, restoredRepository.getSeatingLevel("Business").getReservedCount());
+        assertEquals("CONFIRM-" + IdGenerator.format(pending.getHoldId()), restored.reserveHeldSeats(pending.getHoldId(), "b@example.com"));
+        assertNotEquals(pending.getHoldId(), restored.findAndHoldSeats(1, "f@example.com").getHoldId());
+    }
+
+    @Test
+    void testJournalSnapshotCompactsAndRecovers(@TempDir Path journalDir) throws Exception {
+        SeatService journaled = journaledService(journalDir);
+        SeatHold beforeSnapshot = journaled.findAndHoldSeats(3, "a@example.com");
+        String directCode = journaled.reserveBestAvailableSeats(10, "b@example.com", 0, 1000, Optional.empty());
+        journaled.snapshotJournal();
+        String heldCode = journaled.reserveHeldSeats(beforeSnapshot.getHoldId(), "a@example.com");
+        String cancelledCode = journaled.reserveBestAvailableSeats(4, "b@example.com", 0, 1000, Optional.empty());
+        journaled.cancelReservation(directCode, "b@example.com");
+        SeatHold afterSnapshot = journaled.findAndHoldSeats(2, "c@example.com");
+
+        try (var files = Files.list(journalDir)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().startsWith("snapshot-")).count());
+        }
+
+        SeatService restored = journaledService(journalDir, new AirplaneLayoutRepository(new PricingService()));
+        assertAvailabilityMatches(journaled, restored);
+        assertEquals(1, restored.getActiveHoldCount());
+        restored.reserveHeldSeats(afterSnapshot.getHoldId(), "c@example.com");
+
+        // Reservations come back from the snapshot and from the segment written after it
+        assertThrows(ReservationNotFoundException.class, () -> restored.findReservation(directCode));
+        assertEquals(4, restored.findReservation(cancelledCode).getSeats().size());
+        assertEquals(seatNumbers(beforeSnapshot),
+                restored.findReservation(heldCode).getSeats().stream().map(Seat::getSeatNumber).toList());
+        assertEquals(List.of(cancelledCode),
+                restored.findReservations("b@example.com").stream().map(Reservation::getConfirmationCode).toList());
+    }
+
+    @Test
+    void testJournalSnapshotDuringReservation(@TempDir Path journalDir) throws Exception {
+        SeatService[] journaled = new SeatService[1];
+        // A snapshot starts as soon as each reservation is journaled, before the reservation is stored
+        ReservationJournal journal = new ReservationJournal(true, journalDir.toString(), 1 << 16, 1) {
+            @Override
+            public void append(JournalEvent event) {
+                super.append(event);
+                if (event instanceof JournalEvent.HoldReserved || event instanceof JournalEvent.SeatsReserved) {
+                    snapshotConcurrently(journaled[0]);
+                }
+            }
+        };
+        journaled[0] = new SeatService(repository, pricingService, 120, 1000, false, journal);
+        journaled[0].recoverFromJournal();
+
+        SeatHold seatHold = journaled[0].findAndHoldSeats(2, "a@example.com");
+        String heldCode = journaled[0].reserveHeldSeats(seatHold.getHoldId(), "a@example.com");
+        String directCode = journaled[0].reserveBestAvailableSeats(3, "b@example.com", 0, 1000, Optional.empty());
+        awaitSnapshots();
+
+        SeatService restored = journaledService(journalDir, new AirplaneLayoutRepository(new PricingService()));
+        assertAvailabilityMatches(journaled[0], restored);
+        assertEquals(seatNumbers(seatHold),
+                restored.findReservation(heldCode).getSeats().stream().map(Seat::getSeatNumber).toList());
+        assertEquals(3, restored.findReservation(directCode).getSeats().size());
+    }
+
+    @Test
+    void testJournalSnapshotDuringCancellation(@TempDir Path journalDir) throws Exception {
+        SeatService[] journaled = new SeatService[1];
+        // A snapshot starts as soon as the cancellation is journaled, before the seats are returned
+        ReservationJournal journal = new ReservationJournal(true, journalDir.toString(), 1 << 16, 1) {
+            @Override
+            public void append(JournalEvent event) {
+                super.append(event);
+                if (event instanceof JournalEvent.ReservationCancelled) {
+                    snapshotConcurrently(journaled[0]);
+                }
+            }
+        };
+        journaled[0] = new SeatService(repository, pricingService, 120, 1000, false, journal);
+        journaled[0].recoverFromJournal();
+
+        String code = journaled[0].reserveBestAvailableSeats(3, "a@example.com", 0, 1000, Optional.empty());
+        journaled[0].cancelReservation(code, "a@example.com");
+        awaitSnapshots();
+
+        SeatService restored = journaledService(journalDir, new AirplaneLayoutRepository(new PricingService()));
+        assertAvailabilityMatches(journaled[0], restored);
+        assertEquals(40, restored.numSeatsAvailable(Optional.of(new String[]{"First Class"})).get(0).getAvailableSeats());
+    }
+
+    private final List<Thread> snapshotThreads = new ArrayList<>();
+
+    // Start a snapshot on another thread and give it time to finish before the journaling caller carries on
+    private void snapshotConcurrently(SeatService service) {
+        Thread snapshot = new Thread(service::snapshotJournal);
+        snapshotThreads.add(snapshot);
+        snapshot.start();
+        try {
+            snapshot.join(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitSnapshots() throws InterruptedException {
+        for (Thread snapshot : snapshotThreads) {
+            snapshot.join();
+        }
+    }
+
+    @Test
+    void testJournalReplayWithSeatsReheldDuringRelease(@TempDir Path journalDir) {
+        List<String> racerCodes = new ArrayList<>();
+        SeatService[] journaled = new SeatService[1];
+        // Another customer holds and reserves seats while the expiry of the first hold is being journaled
+        ReservationJournal journal = new ReservationJournal(true, journalDir.toString(), 1 << 16, 1) {
+            @Override
+            public void append(JournalEvent event) {
+                if (event instanceof JournalEvent.HoldReleased && racerCodes.isEmpty()) {
+                    SeatHold racer = journaled[0].findAndHoldSeats(2, "b@example.com");
+                    racerCodes.add(journaled[0].reserveHeldSeats(racer.getHoldId(), "b@example.com"));
+                }
+                super.append(event);
+            }
+        };
+        journaled[0] = new SeatService(repository, pricingService, 120, 1000, false, journal);
+        journaled[0].recoverFromJournal();
+
+        SeatHold expiring = journaled[0].findAndHoldSeats(2, "a@example.com");
+        assertEquals(1, journaled[0].expireHolds(System.currentTimeMillis() + 125_000));
+        SeatHold reheld = journaled[0].findAndHoldSeats(2, "c@example.com");
+
+        // The racer could not take the seats being released, so the hold after the release gets them back
+        List<String> racerSeats = journaled[0].findReservation(racerCodes.get(0)).getSeats().stream()
+                .map(Seat::getSeatNumber).toList();
+        assertNotEquals(seatNumbers(expiring), racerSeats);
+        assertEquals(seatNumbers(expiring), seatNumbers(reheld));
+
+        SeatService restored = journaledService(journalDir, new AirplaneLayoutRepository(new PricingService()));
+        assertAvailabilityMatches(journaled[0], restored);
+        assertEquals(racerSeats,
+                restored.findReservation(racerCodes.get(0)).getSeats().stream().map(Seat::getSeatNumber).toList());
+        assertEquals(1, restored.getActiveHoldCount());
+        restored.reserveHeldSeats(reheld.getHoldId(), "c@example.com");
+    }
+
+    @Test
+    void testJournalReplayWithSeatsReheldDuringCancellation(@TempDir Path journalDir) {
+        List<String> racerCodes = new ArrayList<>();
+        SeatService[] journaled = new SeatService[1];
+        // Another customer holds and reserves seats while the cancellation is being journaled
+        ReservationJournal journal = new ReservationJournal(true, journalDir.toString(), 1 << 16, 1) {
+            @Override
+            public void append(JournalEvent event) {
+                if (event instanceof JournalEvent.ReservationCancelled && racerCodes.isEmpty()) {
+                    SeatHold racer = journaled[0].findAndHoldSeats(2, "b@example.com");
+                    racerCodes.add(journaled[0].reserveHeldSeats(racer.getHoldId(), "b@example.com"));
+                }
+                super.append(event);
+            }
+        };
+        journaled[0] = new SeatService(repository, pricingService, 120, 1000, false, journal);
+        journaled[0].recoverFromJournal();
+
+        SeatHold cancelled = journaled[0].findAndHoldSeats(2, "a@example.com");
+        String cancelledCode = journaled[0].reserveHeldSeats(cancelled.getHoldId(), "a@example.com");
+        journaled[0].cancelReservation(cancelledCode, "a@example.com");
+        SeatHold reheld = journaled[0].findAndHoldSeats(2, "c@example.com");
+
+        List<String> racerSeats = journaled[0].findReservation(racerCodes.get(0)).getSeats().stream()
+                .map(Seat::getSeatNumber).toList();
+        assertNotEquals(seatNumbers(cancelled), racerSeats);
+        assertEquals(seatNumbers(cancelled), seatNumbers(reheld));
+
+        SeatService restored = journaledService(journalDir, new AirplaneLayoutRepository(new PricingService()));
+        assertAvailabilityMatches(journaled[0], restored);
+        assertEquals(racerSeats,
+                restored.findReservation(racerCodes.get(0)).getSeats().stream().map(Seat::getSeatNumber).toList());
+        assertThrows(ReservationNotFoundException.class, () -> restored.findReservation(cancelledCode));
+        restored.reserveHeldSeats(reheld.getHoldId(), "c@example.com");
+    }
+
+    @Test
+    void testProcessBatch() {
+        SeatHold toReserve = seatService.findAndHoldSeats(2, "a@example.com");
+        SeatHold toRelease = seatService.findAndHoldSeats(3, "b@example.com");
+
+        List<BatchResult> results = seatService.processBatch(AirplaneLayout.DEFAULT_FLIGHT_ID, List.of(
+                batchOperation(BatchOperation.Type.RESERVE, 0, toReserve.getHoldId(), "a@example.com"),
+                batchOperation(BatchOperation.Type.RELEASE, 0, toRelease.getHoldId(), "b@example.com"),
+                batchOperation(BatchOperation.Type.HOLD, 4, 0, "c@example.com"),
+                batchOperation(BatchOperation.Type.RESERVE, 0, toRelease.getHoldId(), "b@example.com"),
+                batchOperation(BatchOperation.Type.HOLD, 0, 0, "c@example.com"),
+                batchOperation(BatchOperation.Type.HOLD, Integer.MAX_VALUE, 0, "c@example.com")));
+
+        assertEquals(6, results.size());
+        assertEquals("CONFIRM-" + IdGenerator.format(toReserve.getHoldId()), results.get(0).getConfirmationCode());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(4, results.get(2).getSeatHold().getHeldSeats().size());
+        assertFalse(results.get(3).isSuccess());
+        assertEquals("Invalid hold ID.", results.get(3).getError());
+        assertFalse(results.get(4).isSuccess());
+        assertEquals("Number of seats must be at most 100.", results.get(5).getError());
+
+        toReserve.getHeldSeats().forEach(seat -> assertTrue(seat.isReserved()));
+        SeatingLevel firstClass = repository.getSeatingLevel("First Class");
+        assertEquals(2, firstClass.getReservedCount());
+        assertEquals(34, firstClass.getAvailableCount());
+        assertEquals(1, seatService.getActiveHoldCount());
+    }
+
+    @Test
+    void testAvailabilityBroadcasterCoalescesChanges() {
+        AvailabilityBroadcaster broadcaster = new AvailabilityBroadcaster(repository, 60_000);
+        broadcaster.subscribe(AirplaneLayout.DEFAULT_FLIGHT_ID);
+        assertEquals(1, broadcaster.getSubscriberCount(AirplaneLayout.DEFAULT_FLIGHT_ID));
+        assertTrue(broadcaster.collectChanges().isEmpty());
+
+        SeatHold released = seatService.findAndHoldSeats(2, "a@example.com");
+        SeatHold reserved = seatService.findAndHoldSeats(1, "b@example.com");
+        seatService.reserveHeldSeats(reserved.getHoldId(), "b@example.com");
+        seatService.releaseHold(AirplaneLayout.DEFAULT_FLIGHT_ID, released.getHoldId(), "a@example.com");
+
+        List<AvailabilityUpdate> updates = new ArrayList<>(broadcaster.collectChanges().values());
+        assertEquals(1, updates.size());
+        AvailabilityUpdate.LevelUpdate firstClass = updates.get(0).levels().get(0);
+        assertEquals(1, updates.get(0).levels().size());
+        assertEquals(39, firstClass.availableSeats());
+        // The released hold netted out within the window; only the reserved seat is reported
+        assertEquals(List.of(new AvailabilityUpdate.SeatChange(
+                        reserved.getHeldSeats().get(0).getSeatNumber(), AvailabilityUpdate.SeatState.RESERVED)),
+                firstClass.changedSeats());
+        assertTrue(broadcaster.collectChanges().isEmpty());
+    }
+
+    @Test
+    void testSeatOperationMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SeatService metered = new SeatService(repository, pricingService, 120, 1000, false,
+                ReservationJournal.disabled(), registry, new IdGenerator(0), new ReservationStore(repository),
+                HoldAdmissionControl.unlimited());
+
+        SeatHold seatHold = metered.findAndHoldSeats(3, "test@example.com");
+        metered.reserveHeldSeats(seatHold.getHoldId(), "test@example.com");
+        metered.findAndHoldSeats(2, "test@example.com");
+        assertThrows(IllegalArgumentException.class, () -> metered.findAndHoldSeats(50, "test@example.com"));
+        assertThrows(SeatHoldNotFoundException.class, () -> metered.reserveHeldSeats(999, "test@example.com"));
+
+        // Failed operations are timed too
+        assertEquals(3, registry.get("seat.operation").tag("operation", "hold").timer().count());
+        assertEquals(2, registry.get("seat.operation").tag("operation", "reserve").timer().count());
+        assertEquals(1, registry.get("seat.rejections").tags("operation", "hold", "reason", "insufficient-seats").counter().count());
+        assertEquals(1, registry.get("seat.rejections").tags("operation", "reserve", "reason", "hold-not-found").counter().count());
+        assertEquals(1, registry.get("seat.holds.active").gauge().value());
+        assertEquals(35, registry.get("seat.level.available").tags("flight", "DEFAULT", "level", "First Class").gauge().value());
+        assertEquals(2, registry.get("seat.level.held").tags("flight", "DEFAULT", "level", "First Class").gauge().value());
+        assertEquals(3, registry.get("seat.level.reserved").tags("flight", "DEFAULT", "level", "First Class").gauge().value());
+
+        // Flights registered after startup get gauges too, and a replaced layout is read instead of the old one
+        repository.addFlight("UA320", "A320");
+        assertEquals(27 * 6 - 2, registry.get("seat.level.available").tags("flight", "UA320", "level", "Economy").gauge().value());
+        metered.findAndHoldSeats(2, "test@example.com");
+        repository.addFlight(AirplaneLayout.DEFAULT_FLIGHT_ID, List.of(new SeatingLevel("First Class", 2, 2)));
+        assertEquals(4, registry.get("seat.level.available").tags("flight", "DEFAULT", "level", "First Class").gauge().value());
+        assertEquals(1, registry.get("seat.level.available").tags("flight", "DEFAULT").gauges().size());
+    }
+
+    @Test
+    void testIdempotencyCacheExpiresAndEvicts() {
+        long[] now = {0};
+        IdempotencyCache cache = new IdempotencyCache(60, 2, () -> now[0]);
+
+        assertEquals("first", cache.execute("hold", "key-1", () -> "first"));
+        assertEquals("first", cache.execute("hold", "key-1", () -> "second"));
+        assertEquals("other", cache.execute("reserve", "key-1", () -> "other"));
+        assertEquals("fresh", cache.execute("hold", "key-2", () -> "fresh"));
+        assertEquals(2, cache.size());
+        // The oldest key was evicted to stay within two entries
+        assertEquals("again", cache.execute("hold", "key-1", () -> "again"));
+
+        now[0] += TimeUnit.SECONDS.toNanos(61);
+        assertEquals("expired", cache.execute("hold", "key-2", () -> "expired"));
+        assertEquals(1, cache.size());
+
+        // Failures are not remembered
+        assertThrows(IllegalArgumentException.class, () -> cache.execute("hold", "key-3", () -> {
+            throw new IllegalArgumentException("Not enough available seats to hold.");
+        }));
+        assertEquals("retried", cache.execute("hold", "key-3", () -> "retried"));
+    }
+
+    @Test
+    void testReservationLookup() {
+        SeatHold first = seatService.findAndHoldSeats(2, "a@example.com");
+        String firstCode = seatService.reserveHeldSeats(first.getHoldId(), "a@example.com");
+        String directCode = seatService.reserveBestAvailableSeats(92, "a@example.com", 0, 100_000,
+                Optional.of(new String[]{"Business", "Premium Economy"}));
+        SeatHold other = seatService.findAndHoldSeats(1, "b@example.com");
+        List<BatchResult> batch = seatService.processBatch(AirplaneLayout.DEFAULT_FLIGHT_ID,
+                List.of(batchOperation(BatchOperation.Type.RESERVE, 0, other.getHoldId(), "b@example.com")));
+
+        Reservation reservation = seatService.findReservation(firstCode);
+        assertEquals(AirplaneLayout.DEFAULT_FLIGHT_ID, reservation.getFlightId());
+        assertEquals("a@example.com", reservation.getCustomerEmail());
+        assertEquals(seatNumbers(first), reservation.getSeats().stream().map(Seat::getSeatNumber).toList());
+        assertTrue(reservation.getSeats().stream().allMatch(Seat::isReserved));
+
+        // Direct reservations can span levels, and keep their seats in cabin order
+        Reservation direct = seatService.findReservation(directCode);
+        assertEquals(92, direct.getSeats().size());
+        assertEquals("Business", direct.getSeats().get(0).getLevel());
+        assertEquals("Premium Economy", direct.getSeats().get(91).getLevel());
+
+        assertEquals(List.of(firstCode, directCode),
+                seatService.findReservations("a@example.com").stream().map(Reservation::getConfirmationCode).toList());
+        assertEquals(1, seatService.findReservation(batch.get(0).getConfirmationCode()).getSeats().size());
+        assertTrue(seatService.findReservations("nobody@example.com").isEmpty());
+
+        // A hold code with the direct prefix, or malformed codes, do not resolve
+        assertThrows(ReservationNotFoundException.class,
+                () -> seatService.findReservation(firstCode.replace("CONFIRM-", "CONFIRM-DIRECT-")));
+        assertThrows(ReservationNotFoundException.class, () -> seatService.findReservation("CONFIRM-abc"));
+        assertThrows(ReservationNotFoundException.class, () -> seatService.findReservation("BOOKING-1"));
+        assertEquals(-1, IdGenerator.parse("0f8rd9jo6ww"));
+        assertEquals(first.getHoldId(), IdGenerator.parse(IdGenerator.format(first.getHoldId())));
+    }
+
+    @Test
+    void testCancelReservationRestoresInventoryAndPrice() {
+        SeatHold seatHold = seatService.findAndHoldSeats(11, "test@example.com");
+        String confirmationCode = seatService.reserveHeldSeats(seatHold.getHoldId(), "test@example.com");
+        SeatingLevel firstClass = repository.getSeatingLevel("First Class");
+        assertEquals(1000.0, repository.getNextSeatPrice("First Class"));
+
+        assertThrows(InvalidRequestException.class, () -> seatService.cancelReservation(confirmationCode, "other@example.com"));
+        seatService.cancelReservation(confirmationCode, "test@example.com");
+
+        // Seats, counters and the price tier all return to their state before the reservation
+        assertEquals(40, firstClass.getAvailableCount());
+        assertEquals(0, firstClass.getReservedCount());
+        assertTrue(firstClass.hasConsistentCounters());
+        assertTrue(seatHold.getHeldSeats().stream().noneMatch(Seat::isReserved));
+        assertEquals(500.0, repository.getNextSeatPrice("First Class"));
+        assertEquals("First Class", repository.getLevelsInPriceRange(AirplaneLayout.DEFAULT_FLIGHT_ID, 500, 500).get(0).getLevelName());
+        assertTrue(seatService.findReservations("test@example.com").isEmpty());
+        assertThrows(ReservationNotFoundException.class, () -> seatService.cancelReservation(confirmationCode, "test@example.com"));
+
+        // A direct reservation spanning levels gives every level its seats back
+        String directCode = seatService.reserveBestAvailableSeats(92, "test@example.com", 0, 100_000,
+                Optional.of(new String[]{"Business", "Premium Economy"}));
+        seatService.cancelReservation(directCode, "test@example.com");
+        assertEquals(0, repository.getSeatingLevel("Business").getReservedCount());
+        assertEquals(90, repository.getSeatingLevel("Business").getAvailableCount());
+        assertEquals(120, repository.getSeatingLevel("Premium Economy").getAvailableCount());
+
+        // Released holds free their seats before expiry
+        SeatHold released = seatService.findAndHoldSeats(3, "test@example.com");
+        seatService.releaseHold(AirplaneLayout.DEFAULT_FLIGHT_ID, released.getHoldId(), "test@example.com");
+        assertEquals(40, firstClass.getAvailableCount());
+        assertEquals(0, seatService.getActiveHoldCount());
+    }
+
+    @Test
+    void testSeatMapIsRebuiltOnlyWhenSeatStateChanges() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        SeatMapService seatMapService = new SeatMapService(repository, objectMapper);
+
+        // Unchanged seat state serves the same bytes
+        SeatMapService.Snapshot first = seatMapService.seatMap(AirplaneLayout.DEFAULT_FLIGHT_ID);
+        assertSame(first, seatMapService.seatMap(AirplaneLayout.DEFAULT_FLIGHT_ID));
+
+        SeatHold hold = seatService.findAndHoldSeats(2, "test@example.com");
+        SeatMapService.Snapshot held = seatMapService.seatMap(AirplaneLayout.DEFAULT_FLIGHT_ID);
+        assertNotEquals(first.etag(), held.etag());
+        JsonNode firstRow = objectMapper.readTree(held.body()).get("levels").get(0).get("rows").get(0);
+        assertEquals(1, firstRow.get("row").asInt());
+        assertEquals("HHAA", firstRow.get("seats").asText());
+
+        seatService.reserveHeldSeats(hold.getHoldId(), "test@example.com");
+        JsonNode reserved = objectMapper.readTree(seatMapService.seatMap(AirplaneLayout.DEFAULT_FLIGHT_ID).body());
+        assertEquals("RRAA", reserved.get("levels").get(0).get("rows").get(0).get("seats").asText());
+
+        // Printed row numbers, exit rows and blocked seats come from the aircraft layout
+        repository.addFlight("UA320", "A320");
+        JsonNode economy = objectMapper.readTree(seatMapService.seatMap("UA320").body()).get("levels").get(1);
+        assertEquals("Economy", economy.get("levelName").asText());
+        assertEquals("ABCDEF", economy.get("seatLetters").asText());
+        assertEquals(4, economy.get("rows").get(0).get("row").asInt());
+        assertTrue(economy.get("rows").get(6).get("exit").asBoolean());
+        assertEquals("AAXXAA", economy.get("rows").get(26).get("seats").asText());
+    }
+
+    @Test
+    void testHoldAdmissionControl() {
+        long[] nanos = {0};
+        HoldAdmissionControl admission = new HoldAdmissionControl(1, 2, 2, () -> nanos[0]); // 1 hold/s, burst 2, 2 active
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SeatService limited = new SeatService(repository, pricingService, 120, 1000, false,
+                ReservationJournal.disabled(), registry, new IdGenerator(0), new ReservationStore(repository), admission);
+
+        // The burst is spent, so the next hold is shed before any seat is searched
+        SeatHold first = limited.findAndHoldSeats(1, "bot@example.com");
+        limited.findAndHoldSeats(1, "bot@example.com");
+        TooManyRequestsException limitedRate = assertThrows(TooManyRequestsException.class,
+                () -> limited.findAndHoldSeats(1, "bot@example.com"));
+        assertEquals(1, limitedRate.getRetryAfterSeconds());
+        assertEquals(38, repository.getSeatingLevel("First Class").getAvailableCount());
+        limited.findAndHoldSeats(1, "someone@example.com"); // Buckets are per customer
+
+        // With a token again, the active-hold quota applies until a hold ends
+        nanos[0] += TimeUnit.SECONDS.toNanos(1);
+        assertThrows(TooManyRequestsException.class, () -> limited.findAndHoldSeats(1, "bot@example.com"));
+        limited.reserveHeldSeats(first.getHoldId(), "bot@example.com");
+        nanos[0] += TimeUnit.SECONDS.toNanos(1);
+        limited.findAndHoldSeats(1, "bot@example.com");
+        assertEquals(2, admission.getActiveHolds(AirplaneLayout.DEFAULT_FLIGHT_ID, "bot@example.com"));
+        assertEquals(1, registry.get("seat.rejections").tags("operation", "hold", "reason", "rate-limited").counter().count());
+        assertEquals(1, registry.get("seat.rejections").tags("operation", "hold", "reason", "hold-quota").counter().count());
+
+        // Failed and expired holds give their slot back, and refilled buckets are forgotten
+        nanos[0] += TimeUnit.SECONDS.toNanos(10);
+        assertThrows(IllegalArgumentException.class, () -> limited.findAndHoldSeats(50, "other@example.com"));
+        assertEquals(0, admission.getActiveHolds(AirplaneLayout.DEFAULT_FLIGHT_ID, "other@example.com"));
+        limited.expireHolds(System.currentTimeMillis() + 600_000);
+        assertEquals(0, admission.getActiveHolds(AirplaneLayout.DEFAULT_FLIGHT_ID, "bot@example.com"));
+        admission.evictFullBuckets();
+        assertEquals(1, admission.getBucketCount()); // other@ spent a token just now
+        nanos[0] += TimeUnit.SECONDS.toNanos(10);
+        admission.evictFullBuckets();
+        assertEquals(0, admission.getBucketCount());
+    }
+
+    @Test
+    void testWaitingRoomAdmitsInOrder() {
+        long[] nanos = {0};
+        WaitingRoom waitingRoom = new WaitingRoom(repository, new String[]{AirplaneLayout.DEFAULT_FLIGHT_ID}, 2, 3, 60,
+                () -> nanos[0]); // Admits 2 per second, 3 may wait
+        String flight = AirplaneLayout.DEFAULT_FLIGHT_ID;
+
+        QueueTicket first = waitingRoom.join(flight, "first@example.com");
+        QueueTicket second = waitingRoom.join(flight, "second@example.com");
+        assertEquals(1, first.position());
+        assertEquals(2, second.position());
+        assertFalse(first.admitted());
+        waitingRoom.join(flight, "third@example.com");
+        assertThrows(TooManyRequestsException.class, () -> waitingRoom.join(flight, "fourth@example.com"));
+
+        // Holds need an admitted ticket, and admission follows join order
+        assertThrows(InvalidRequestException.class,
+                () -> waitingRoom.hold(flight, null, "first@example.com", () -> seatService.findAndHoldSeats(1, "first@example.com")));
+        assertThrows(TooManyRequestsException.class, () -> waitingRoom.hold(flight, first.ticket(), "first@example.com",
+                () -> seatService.findAndHoldSeats(1, "first@example.com")));
+        nanos[0] += TimeUnit.MILLISECONDS.toNanos(500);
+        assertTrue(waitingRoom.status(flight, first.ticket()).admitted());
+        assertEquals(1, waitingRoom.status(flight, second.ticket()).position());
+        SeatHold hold = waitingRoom.hold(flight, first.ticket(), "first@example.com",
+                () -> seatService.findAndHoldSeats(2, "first@example.com"));
+        assertEquals(2, hold.getHeldSeats().size());
+        assertThrows(InvalidRequestException.class, () -> waitingRoom.hold(flight, first.ticket(), "first@example.com",
+                () -> seatService.findAndHoldSeats(2, "first@example.com"))); // One hold per ticket
+
+        // A failed hold keeps the ticket for a retry
+        nanos[0] += TimeUnit.MILLISECONDS.toNanos(500);
+        assertThrows(IllegalArgumentException.class, () -> waitingRoom.hold(flight, second.ticket(), "second@example.com",
+                () -> seatService.findAndHoldSeats(50, "second@example.com")));
+        assertTrue(waitingRoom.status(flight, second.ticket()).admitted());
+        assertThrows(InvalidRequestException.class, () -> waitingRoom.checkBatch(flight,
+                List.of(batchOperation(BatchOperation.Type.HOLD, 1, 0, "second@example.com"))));
+
+        // Once First Class is sold out, requests are turned away without queueing
+        seatService.findAndHoldSeats(38, "bulk@example.com");
+        assertThrows(SeatsSoldOutException.class, () -> waitingRoom.join(flight, "late@example.com"));
+        assertThrows(SeatsSoldOutException.class, () -> waitingRoom.hold(flight, second.ticket(), "second@example.com",
+                () -> seatService.findAndHoldSeats(1, "second@example.com")));
+
+        // Flights without a waiting room hold directly, and unused tickets expire
+        WaitingRoom noQueue = new WaitingRoom(repository, new String[0], 2, 3, 60);
+        assertNotNull(noQueue.hold(flight, null, "x@example.com", () -> hold));
+        nanos[0] += TimeUnit.SECONDS.toNanos(120);
+        waitingRoom.evictExpiredTickets();
+        assertEquals(0, waitingRoom.getTicketCount());
+    }
+
+    @Test
+    void testIdGeneratorIsUniqueAndOrdered() throws InterruptedException {
+        long[] seconds = {IdGenerator.EPOCH_SECONDS + 1000};
+        IdGenerator generator = new IdGenerator(7, () -> seconds[0]);
+
+        // A full second's sequence carries into the next second instead of repeating
+        long previous = -1;
+        for (int i = 0; i < (1 << IdGenerator.SEQUENCE_BITS) + 10; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertEquals(7, (id >>> IdGenerator.SEQUENCE_BITS) & IdGenerator.MAX_NODE_ID);
+            previous = id;
+        }
+        assertEquals(1001, previous >>> (IdGenerator.NODE_BITS + IdGenerator.SEQUENCE_BITS));
+
+        // Replayed ids ahead of the clock are never issued again, and a clock step back does not go backwards
+        generator.observe(previous + 100);
+        seconds[0] -= 10;
+        assertTrue(generator.nextId() > previous + 100);
+        assertTrue(IdGenerator.format(previous).compareTo(IdGenerator.format(previous + 100)) < 0);
+        assertEquals(11, IdGenerator.format(previous).length());
+        assertTrue(generator.nextId() < (1L << 53));
+
+        ConcurrentLinkedQueue<Long> ids = new ConcurrentLinkedQueue<>();
+        IdGenerator shared = new IdGenerator(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(shared.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(80_000, new HashSet<>(ids).size());
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerator(256));
+    }
+
+    private static BatchOperation batchOperation(BatchOperation.Type type, int numSeats, long holdId, String customerEmail) {
+        BatchOperation operation = new BatchOperation();
+        operation.setType(type);
+        operation.setNumSeats(numSeats);
+        operation.setHoldId(holdId);
+        operation.setCustomerEmail(customerEmail);
+        return operation;
+    }
+
+    private SeatService journaledService(Path journalDir) {
+        return journaledService(journalDir, repository);
+    }
+
+    private SeatService journaledService(Path journalDir, AirplaneLayoutRepository layouts) {
+        ReservationJournal journal = new ReservationJournal(true, journalDir.toString(), 1 << 16, 1);
+        SeatService service = new SeatService(layouts, pricingService, 120, 1000, false, journal);
+        service.recoverFromJournal();
+        return service;
+    }
+
+    private static void assertAvailabilityMatches(SeatService expected, SeatService actual) {
+        List<SeatService.AvailableSeats> expectedSeats = expected.numSeatsAvailable(Optional.empty());
+        List<SeatService.AvailableSeats> actualSeats = actual.numSeatsAvailable(Optional.empty());
+        for (int i = 0; i < expectedSeats.size(); i++) {
+            assertEquals(expectedSeats.get(i).getAvailableSeats(), actualSeats.get(i).getAvailableSeats(),
+                    expectedSeats.get(i).getLevelName());
+        }
+    }
+}